@@ -1,6 +1,6 @@
 package com.sport_venue_booking_system;
 
-import com.sport_venue_booking_system.service.SessionService;
+import com.sport_venue_booking_system.service.StartupService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,7 +16,7 @@ public class SportVenueBookingSystemApplication implements CommandLineRunner {
     private static final Logger logger = LoggerFactory.getLogger(SportVenueBookingSystemApplication.class);
     
     @Autowired
-    private SessionService sessionService;
+    private StartupService startupService;
     
     public static void main(String[] args) {
         SpringApplication.run(SportVenueBookingSystemApplication.class, args);
@@ -25,13 +25,7 @@ public class SportVenueBookingSystemApplication implements CommandLineRunner {
     @Override
     public void run(String... args) throws Exception {
         logger.info("应用启动完成，开始初始化场次...");
-        
-        try {
-            // 初始化场次，如果完全相同的场次已存在则跳过
-            sessionService.initializeSessionsIfEmpty();
-            logger.info("场次初始化完成");
-        } catch (Exception e) {
-            logger.error("场次初始化失败: {}", e.getMessage(), e);
-        }
+        // 清除过期场次、补齐场次并预热缓存，startup.async-init为true时在后台执行
+        startupService.initialize();
     }
-}
+}
\ No newline at end of file
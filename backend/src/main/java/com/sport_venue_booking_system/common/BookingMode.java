@@ -0,0 +1,10 @@
+package com.sport_venue_booking_system.common;
+
+/**
+ * 预订模式（对应配置 booking.mode）
+ */
+public enum BookingMode {
+    DATABASE,   // 逐个场次读取数据库后更新（默认）
+    INVENTORY,  // 由内存场次库存判定，数据库只记录结果（仅适用于单实例部署）
+    CONDITIONAL // 单条条件更新语句一次占用全部场次
+}
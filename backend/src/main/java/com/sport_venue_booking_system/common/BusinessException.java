@@ -0,0 +1,18 @@
+package com.sport_venue_booking_system.common;
+
+import lombok.Getter;
+
+/**
+ * 业务规则异常，携带错误码以便区分失败原因（如指标的结果标签）
+ * 仍是RuntimeException，原有按异常信息返回错误的调用方不受影响
+ */
+@Getter
+public class BusinessException extends RuntimeException {
+
+    private final ResultCode resultCode;
+
+    public BusinessException(ResultCode resultCode, String message) {
+        super(message);
+        this.resultCode = resultCode;
+    }
+}
\ No newline at end of file
@@ -5,10 +5,14 @@ import lombok.Getter;
 @Getter
 public enum ResultCode {
     SUCCESS(200, "操作成功"),
+    ACCEPTED(202, "请求已受理，正在处理"),
     FAIL(400, "操作失败"),
     UNAUTHORIZED(401, "未授权"),
     FORBIDDEN(403, "禁止访问"),
     NOT_FOUND(404, "资源不存在"),
+    CONFLICT(409, "请求冲突"),
+    UNPROCESSABLE_ENTITY(422, "请求无法处理"),
+    TOO_MANY_REQUESTS(429, "请求过多，请稍后重试"),
     INTERNAL_ERROR(500, "服务器内部错误"),
     
     // 用户相关错误 (1000-1099)
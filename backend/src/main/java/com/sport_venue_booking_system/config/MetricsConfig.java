@@ -0,0 +1,79 @@
+package com.sport_venue_booking_system.config;
+
+import com.sport_venue_booking_system.service.PasswordHashingService;
+import com.sport_venue_booking_system.service.RevokedTokenService;
+import com.sport_venue_booking_system.service.SessionArchiveService;
+import com.sport_venue_booking_system.service.SessionDayCache;
+import com.sport_venue_booking_system.service.StartupService;
+import com.sport_venue_booking_system.utils.JwtUtil;
+import com.sport_venue_booking_system.utils.QueryCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 指标配置（通过 /actuator/prometheus 暴露）
+ * 连接池、HTTP请求、定时任务和Hibernate统计的指标由Spring Boot自动注册；
+ * 这里补充每个请求的SQL语句数，并把各服务已有的统计（缓存、归档、认证、密码哈希、令牌撤销）注册为指标。
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public QueryCounter queryCounter() {
+        return new QueryCounter();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCounterCustomizer(QueryCounter queryCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, queryCounter);
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryCountFilter> queryCountFilter(QueryCounter queryCounter, MeterRegistry meterRegistry) {
+        // 排在安全过滤器之前，认证过程中的查询也计入
+        FilterRegistrationBean<QueryCountFilter> registration =
+                new FilterRegistrationBean<>(new QueryCountFilter(queryCounter, meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public MeterBinder serviceStatsMetrics(SessionDayCache sessionDayCache, SessionArchiveService sessionArchiveService,
+                                           JwtUtil jwtUtil, PasswordHashingService passwordHashingService,
+                                           RevokedTokenService revokedTokenService, StartupService startupService) {
+        return registry -> {
+            bindStats(registry, "session.cache", sessionDayCache::getStats);
+            bindStats(registry, "session.archive", sessionArchiveService::getStats);
+            bindStats(registry, "auth.jwt.cache", jwtUtil::getStats);
+            bindStats(registry, "auth.password", passwordHashingService::getStats);
+            bindStats(registry, "auth.revocation", revokedTokenService::getStats);
+            Gauge.builder("startup.ready", startupService, service -> service.isReady() ? 1 : 0)
+                    .description("启动初始化是否完成")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * 把统计中的数值项注册为指标，名称为 前缀.统计项（驼峰转为点分隔，如 hitRate -> hit.rate）
+     */
+    private static void bindStats(MeterRegistry registry, String prefix, Supplier<Map<String, Object>> stats) {
+        stats.get().forEach((key, value) -> {
+            if (value instanceof Number) {
+                Gauge.builder(prefix + "." + key.replaceAll("([a-z])([A-Z])", "$1.$2").toLowerCase(), stats,
+                                supplier -> supplier.get().get(key) instanceof Number number ? number.doubleValue() : Double.NaN)
+                        .strongReference(true)
+                        .register(registry);
+            }
+        });
+    }
+}
\ No newline at end of file
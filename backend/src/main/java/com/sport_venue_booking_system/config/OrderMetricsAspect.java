@@ -0,0 +1,92 @@
+package com.sport_venue_booking_system.config;
+
+import com.sport_venue_booking_system.common.BusinessException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 订单操作计时（指标 booking.orders，标签 operation 和 outcome）
+ * 切面排在事务之外，计时包含事务提交；结果标签按业务异常的错误码区分失败原因，
+ * 返回false（订单不存在、状态不符等）记为 rejected。
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class OrderMetricsAspect {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Around("execution(* com.sport_venue_booking_system.service.OrderService.createOrder(..))")
+    public Object timeCreate(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("create", joinPoint);
+    }
+
+    @Around("execution(* com.sport_venue_booking_system.service.OrderService.holdSessions(..))")
+    public Object timeHold(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("hold", joinPoint);
+    }
+
+    @Around("execution(* com.sport_venue_booking_system.service.OrderService.confirmHold(..))")
+    public Object timeConfirmHold(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("confirm-hold", joinPoint);
+    }
+
+    @Around("execution(* com.sport_venue_booking_system.service.OrderService.cancelUserOrder(..))")
+    public Object timeCancel(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("cancel", joinPoint);
+    }
+
+    @Around("execution(* com.sport_venue_booking_system.service.OrderService.verifyOrder(..))")
+    public Object timeVerify(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("verify", joinPoint);
+    }
+
+    private Object time(String operation, ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            Object result = joinPoint.proceed();
+            outcome = Boolean.FALSE.equals(result) ? "rejected" : "success";
+            return result;
+        } catch (Throwable e) {
+            outcome = outcomeOf(e);
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("booking.orders")
+                    .description("订单操作耗时")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * 失败原因，排队下单时业务异常可能被包装
+     */
+    private static String outcomeOf(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BusinessException businessException) {
+                return switch (businessException.getResultCode()) {
+                    case SESSION_ALREADY_BOOKED -> "already-booked";
+                    case SESSION_EXPIRED -> "expired";
+                    case ORDER_EXCEED_MAX_SESSIONS -> "limit-exceeded";
+                    case ORDER_HAS_UNVERIFIED_ORDERS -> "pending-order";
+                    case ORDER_CANCEL_TIME_LIMIT -> "cancel-time-limit";
+                    case SESSION_UNAVAILABLE, ORDER_SESSION_UNAVAILABLE -> "unavailable";
+                    case SESSION_NOT_FOUND, USER_NOT_FOUND -> "not-found";
+                    case SERVICE_UNAVAILABLE -> "not-ready";
+                    default -> "rejected";
+                };
+            }
+        }
+        return "error";
+    }
+}
\ No newline at end of file
@@ -34,7 +34,13 @@ public class SecurityConfig {
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/sessions/date/**").permitAll()
                 .requestMatchers("/api/sessions/available/date/**").permitAll()
+                .requestMatchers("/api/sessions/grid/date/**").permitAll()
+                .requestMatchers("/api/sessions/stream").permitAll()
+                .requestMatchers("/api/sessions/changes").permitAll()
                 .requestMatchers("/api/config").permitAll()
+                .requestMatchers("/api/health/**").permitAll()
+                .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
             )
@@ -49,6 +55,7 @@ public class SecurityConfig {
         configuration.setAllowedOriginPatterns(List.of("*"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("*"));
+        configuration.setExposedHeaders(List.of("ETag"));
         configuration.setAllowCredentials(true);
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -1,13 +1,22 @@
 package com.sport_venue_booking_system.controller;
 
+import com.sport_venue_booking_system.common.BusinessException;
 import com.sport_venue_booking_system.common.ResultCode;
 import com.sport_venue_booking_system.dto.ApiResponse;
+import com.sport_venue_booking_system.dto.CursorPage;
 import com.sport_venue_booking_system.dto.OrderVerificationResponse;
 import com.sport_venue_booking_system.dto.SessionTemplateRequest;
+import com.sport_venue_booking_system.dto.TemplatePropagation;
 import com.sport_venue_booking_system.entity.SessionTemplate;
+import com.sport_venue_booking_system.service.JobLockService;
 import com.sport_venue_booking_system.service.OrderService;
+import com.sport_venue_booking_system.service.PasswordHashingService;
+import com.sport_venue_booking_system.service.RevokedTokenService;
+import com.sport_venue_booking_system.service.SessionArchiveService;
+import com.sport_venue_booking_system.service.SessionDayCache;
 import com.sport_venue_booking_system.service.SessionTemplateService;
 import com.sport_venue_booking_system.service.UserService;
+import com.sport_venue_booking_system.utils.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -33,6 +42,24 @@ public class AdminController {
     @Autowired
     private SessionTemplateService sessionTemplateService;
     
+    @Autowired
+    private SessionDayCache sessionDayCache;
+    
+    @Autowired
+    private SessionArchiveService sessionArchiveService;
+    
+    @Autowired
+    private JobLockService jobLockService;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+    
+    @Autowired
+    private RevokedTokenService revokedTokenService;
+    
     @GetMapping("/stats")
     public ApiResponse<Map<String, Object>> getStats() {
         try {
@@ -60,6 +87,62 @@ public class AdminController {
         }
     }
     
+    @GetMapping("/orders")
+    public ApiResponse<CursorPage<OrderVerificationResponse>> getOrderFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            return ApiResponse.success(orderService.getOrderFeed(cursor, size, withTotal));
+        } catch (BusinessException e) {
+            return ApiResponse.error(e.getResultCode(), e.getMessage());
+        } catch (Exception e) {
+            return ApiResponse.error(ResultCode.INTERNAL_ERROR, "获取订单列表失败: " + e.getMessage());
+        }
+    }
+    
+    @GetMapping("/cache/sessions")
+    public ApiResponse<Map<String, Object>> getSessionCacheStats() {
+        return ApiResponse.success(sessionDayCache.getStats());
+    }
+    
+    @GetMapping("/archive/sessions")
+    public ApiResponse<Map<String, Object>> getSessionArchiveStats() {
+        return ApiResponse.success(sessionArchiveService.getStats());
+    }
+    
+    /**
+     * 使用户已签发的令牌全部失效（如直接修改了用户权限后）
+     */
+    @PostMapping("/users/{id}/revoke-tokens")
+    public ApiResponse<Integer> revokeUserTokens(@PathVariable Long id) {
+        try {
+            return ApiResponse.success("用户令牌已失效", userService.revokeTokens(id));
+        } catch (Exception e) {
+            return ApiResponse.error(ResultCode.USER_NOT_FOUND, "操作失败: " + e.getMessage());
+        }
+    }
+    
+    @GetMapping("/auth/stats")
+    public ApiResponse<Map<String, Object>> getAuthStats() {
+        return ApiResponse.success(jwtUtil.getStats());
+    }
+    
+    @GetMapping("/auth/passwords")
+    public ApiResponse<Map<String, Object>> getPasswordHashingStats() {
+        return ApiResponse.success(passwordHashingService.getStats());
+    }
+    
+    @GetMapping("/auth/revocations")
+    public ApiResponse<Map<String, Object>> getTokenRevocationStats() {
+        return ApiResponse.success(revokedTokenService.getStats());
+    }
+    
+    @GetMapping("/jobs/locks")
+    public ApiResponse<Map<String, Object>> getJobLockStats() {
+        return ApiResponse.success(jobLockService.getStats());
+    }
+    
     @GetMapping("/order/{orderId}")
     public ApiResponse<OrderVerificationResponse> getOrderForVerification(@PathVariable Long orderId) {
         OrderVerificationResponse order = orderService.getOrderForVerification(orderId);
@@ -89,8 +172,12 @@ public class AdminController {
         }
     }
     
+    /**
+     * 创建模板，dryRun=true时只返回场次同步预览
+     */
     @PostMapping("/templates")
-    public ApiResponse<SessionTemplate> createTemplate(@RequestBody SessionTemplateRequest request) {
+    public ApiResponse<TemplatePropagation> createTemplate(@RequestBody SessionTemplateRequest request,
+                                                           @RequestParam(defaultValue = "false") boolean dryRun) {
         try {
             SessionTemplate template = new SessionTemplate();
             template.setCourtName(request.getCourtName());
@@ -99,15 +186,19 @@ public class AdminController {
             template.setIsActive(request.getIsActive() != null ? request.getIsActive() : true);
             template.setNote(request.getNote());
             
-            SessionTemplate savedTemplate = sessionTemplateService.createTemplate(template);
-            return ApiResponse.success(savedTemplate);
+            TemplatePropagation result = sessionTemplateService.createTemplate(template, dryRun);
+            return ApiResponse.success(propagationMessage("创建模板成功", result), result);
         } catch (Exception e) {
             return ApiResponse.error(ResultCode.INTERNAL_ERROR, "创建模板失败: " + e.getMessage());
         }
     }
     
+    /**
+     * 更新模板并同步到未预订的未来场次，dryRun=true时只返回场次同步预览
+     */
     @PutMapping("/templates/{id}")
-    public ApiResponse<SessionTemplate> updateTemplate(@PathVariable Long id, @RequestBody SessionTemplateRequest request) {
+    public ApiResponse<TemplatePropagation> updateTemplate(@PathVariable Long id, @RequestBody SessionTemplateRequest request,
+                                                           @RequestParam(defaultValue = "false") boolean dryRun) {
         try {
             SessionTemplate template = new SessionTemplate();
             template.setCourtName(request.getCourtName());
@@ -116,22 +207,33 @@ public class AdminController {
             template.setIsActive(request.getIsActive() != null ? request.getIsActive() : true);
             template.setNote(request.getNote());
             
-            SessionTemplate updatedTemplate = sessionTemplateService.updateTemplate(id, template);
-            return ApiResponse.success(updatedTemplate);
+            TemplatePropagation result = sessionTemplateService.updateTemplate(id, template, dryRun);
+            return ApiResponse.success(propagationMessage("更新模板成功", result), result);
         } catch (Exception e) {
             return ApiResponse.error(ResultCode.INTERNAL_ERROR, "更新模板失败: " + e.getMessage());
         }
     }
     
+    /**
+     * 删除模板及其未预订的未来场次，dryRun=true时只返回场次同步预览
+     */
     @DeleteMapping("/templates/{id}")
-    public ApiResponse<String> deleteTemplate(@PathVariable Long id) {
+    public ApiResponse<TemplatePropagation> deleteTemplate(@PathVariable Long id,
+                                                           @RequestParam(defaultValue = "false") boolean dryRun) {
         try {
-            sessionTemplateService.deleteTemplate(id);
-            return ApiResponse.success("删除模板成功");
+            TemplatePropagation result = sessionTemplateService.deleteTemplate(id, dryRun);
+            return ApiResponse.success(propagationMessage("删除模板成功", result), result);
         } catch (Exception e) {
             return ApiResponse.error(ResultCode.INTERNAL_ERROR, "删除模板失败: " + e.getMessage());
         }
     }
     
+    private String propagationMessage(String action, TemplatePropagation result) {
+        if (!result.isApplied()) {
+            return "预览完成，未保存";
+        }
+        return action + "，同步场次 " + result.getAppliedCount() + " 个";
+    }
+    
 
 } 
\ No newline at end of file
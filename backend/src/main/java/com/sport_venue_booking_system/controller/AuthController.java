@@ -5,8 +5,11 @@ import com.sport_venue_booking_system.dto.ApiResponse;
 import com.sport_venue_booking_system.dto.LoginRequest;
 import com.sport_venue_booking_system.dto.LoginResponse;
 import com.sport_venue_booking_system.dto.RegisterRequest;
+import com.sport_venue_booking_system.service.PasswordHashingService;
 import com.sport_venue_booking_system.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -17,27 +20,49 @@ public class AuthController {
     private UserService userService;
 
     @PostMapping("/register")
-    public ApiResponse<String> register(@RequestBody RegisterRequest request) {
+    public ResponseEntity<ApiResponse<String>> register(@RequestBody RegisterRequest request) {
         try {
             String error = userService.register(request);
             if (error != null) {
-                return ApiResponse.error(ResultCode.USERNAME_ALREADY_EXIST, error);
+                return ResponseEntity.ok(ApiResponse.error(ResultCode.USERNAME_ALREADY_EXIST, error));
             }
-            return ApiResponse.success("注册成功", null);
+            return ResponseEntity.ok(ApiResponse.success("注册成功", null));
+        } catch (PasswordHashingService.BusyException e) {
+            // 交给 PasswordHashingExceptionHandler 统一返回429
+            throw e;
         } catch (Exception e) {
-            return ApiResponse.error(ResultCode.FAIL, "注册失败: " + e.getMessage());
+            return ResponseEntity.ok(ApiResponse.error(ResultCode.FAIL, "注册失败: " + e.getMessage()));
         }
     }
 
     @PostMapping("/login")
-    public ApiResponse<LoginResponse> login(@RequestBody LoginRequest request) {
+    public ResponseEntity<ApiResponse<LoginResponse>> login(@RequestBody LoginRequest request) {
         try {
             LoginResponse response = userService.login(request);
-            return ApiResponse.success("登录成功", response);
+            return ResponseEntity.ok(ApiResponse.success("登录成功", response));
+        } catch (PasswordHashingService.BusyException e) {
+            // 交给 PasswordHashingExceptionHandler 统一返回429
+            throw e;
         } catch (RuntimeException e) {
-            return ApiResponse.error(ResultCode.PASSWORD_ERROR, e.getMessage());
+            return ResponseEntity.ok(ApiResponse.error(ResultCode.PASSWORD_ERROR, e.getMessage()));
         } catch (Exception e) {
-            return ApiResponse.error(ResultCode.FAIL, "登录失败: " + e.getMessage());
+            return ResponseEntity.ok(ApiResponse.error(ResultCode.FAIL, "登录失败: " + e.getMessage()));
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * 退出登录，撤销请求头中的令牌
+     */
+    @PostMapping("/logout")
+    public ApiResponse<String> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ApiResponse.error(ResultCode.UNAUTHORIZED, "未登录");
+        }
+        try {
+            userService.logout(authHeader.substring(7));
+            return ApiResponse.success("已退出登录", null);
+        } catch (Exception e) {
+            return ApiResponse.error(ResultCode.UNAUTHORIZED, "令牌无效或已过期");
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.sport_venue_booking_system.controller;
+
+import com.sport_venue_booking_system.common.ResultCode;
+import com.sport_venue_booking_system.dto.ApiResponse;
+import com.sport_venue_booking_system.service.StartupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/health")
+@CrossOrigin(origins = "*")
+public class HealthController {
+    
+    @Autowired
+    private StartupService startupService;
+    
+    /**
+     * 存活检查，进程能处理请求即返回200
+     */
+    @GetMapping("/live")
+    public ApiResponse<String> live() {
+        return ApiResponse.success("UP");
+    }
+    
+    /**
+     * 就绪检查（公开API，供负载均衡使用）
+     * 场次数据加载完成前返回503，响应中包含各启动阶段的耗时
+     */
+    @GetMapping("/ready")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> ready() {
+        Map<String, Object> report = startupService.getReport();
+        if (startupService.isReady()) {
+            return ResponseEntity.ok(ApiResponse.success(report));
+        }
+        ApiResponse<Map<String, Object>> response = ApiResponse.error(ResultCode.SERVICE_UNAVAILABLE, "场次数据尚未加载完成");
+        response.setData(report);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
+}
\ No newline at end of file
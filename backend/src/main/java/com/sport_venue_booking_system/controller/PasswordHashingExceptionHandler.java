@@ -0,0 +1,24 @@
+package com.sport_venue_booking_system.controller;
+
+import com.sport_venue_booking_system.common.ResultCode;
+import com.sport_venue_booking_system.dto.ApiResponse;
+import com.sport_venue_booking_system.service.PasswordHashingService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * 密码哈希线程池繁忙时统一返回429，登录、注册、修改密码等所有哈希路径行为一致
+ */
+@RestControllerAdvice
+public class PasswordHashingExceptionHandler {
+
+    @ExceptionHandler(PasswordHashingService.BusyException.class)
+    public ResponseEntity<ApiResponse<Void>> handleBusy(PasswordHashingService.BusyException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ApiResponse.error(ResultCode.TOO_MANY_REQUESTS, e.getMessage()));
+    }
+}
\ No newline at end of file
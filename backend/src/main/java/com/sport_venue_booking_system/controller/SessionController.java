@@ -1,12 +1,23 @@
 package com.sport_venue_booking_system.controller;
 
 import com.sport_venue_booking_system.dto.ApiResponse;
+import com.sport_venue_booking_system.dto.SessionDaySnapshot;
+import com.sport_venue_booking_system.dto.SessionGrid;
+import com.sport_venue_booking_system.dto.SyncDelta;
 import com.sport_venue_booking_system.entity.Session;
+import com.sport_venue_booking_system.service.SessionChangeLog;
 import com.sport_venue_booking_system.service.SessionService;
+import com.sport_venue_booking_system.service.SlotChangeBroadcaster;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.time.LocalDate;
@@ -15,11 +26,18 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/sessions")
 @CrossOrigin(origins = "*")
+@Timed(value = "sessions.api", description = "场次接口耗时", histogram = true)
 public class SessionController {
     
     @Autowired
     private SessionService sessionService;
     
+    @Autowired
+    private SlotChangeBroadcaster slotChangeBroadcaster;
+    
+    @Autowired
+    private SessionChangeLog sessionChangeLog;
+    
     /**
      * 获取所有场次
      */
@@ -109,17 +127,21 @@ public class SessionController {
     /**
      * 根据日期获取场次（公开API，无需认证）
      * 返回指定日期的所有场次，包括已预订和不可预订的场次
+     * 响应带ETag，客户端携带If-None-Match轮询时，场次未变化返回304
      */
     @GetMapping("/date/{date}")
     public ResponseEntity<ApiResponse<List<Session>>> getSessionsByDate(
-            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            WebRequest webRequest) {
         try {
-            // 计算日期的开始和结束时间
-            LocalDateTime startOfDay = date.atStartOfDay();
-            LocalDateTime endOfDay = date.plusDays(1).atStartOfDay();
-            
-            List<Session> sessions = sessionService.getSessionsBetween(startOfDay, endOfDay);
-            return ResponseEntity.ok(ApiResponse.success(sessions));
+            SessionDaySnapshot snapshot = sessionService.getSessionsByDate(date);
+            if (webRequest.checkNotModified(snapshot.getEtag())) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .eTag(snapshot.getEtag())
+                    .body(ApiResponse.success(snapshot.getSessions()));
         } catch (Exception e) {
             return ResponseEntity.ok(ApiResponse.error("获取场次失败: " + e.getMessage()));
         }
@@ -127,23 +149,81 @@ public class SessionController {
     
     /**
      * 根据日期获取可预订场次（公开API，无需认证）
-     * 只返回可预订的场次
+     * 只返回可预订的场次，ETag规则同上
      */
     @GetMapping("/available/date/{date}")
     public ResponseEntity<ApiResponse<List<Session>>> getAvailableSessionsByDate(
-            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            WebRequest webRequest) {
         try {
-            // 计算日期的开始和结束时间
-            LocalDateTime startOfDay = date.atStartOfDay();
-            LocalDateTime endOfDay = date.plusDays(1).atStartOfDay();
-            
-            List<Session> sessions = sessionService.getAvailableSessionsBetween(startOfDay, endOfDay);
-            return ResponseEntity.ok(ApiResponse.success(sessions));
+            SessionDaySnapshot snapshot = sessionService.getAvailableSessionsByDate(date);
+            if (webRequest.checkNotModified(snapshot.getEtag())) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .eTag(snapshot.getEtag())
+                    .body(ApiResponse.success(snapshot.getSessions()));
         } catch (Exception e) {
             return ResponseEntity.ok(ApiResponse.error("获取可预订场次失败: " + e.getMessage()));
         }
     }
     
+    /**
+     * 根据日期获取场地×小时场次矩阵（公开API，无需认证）
+     * 以位图和去重价格表表示当日全部场次，用于绘制预订表格，ETag规则同上
+     */
+    @GetMapping("/grid/date/{date}")
+    public ResponseEntity<ApiResponse<SessionGrid>> getSessionGrid(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            WebRequest webRequest) {
+        try {
+            SessionGrid grid = sessionService.getSessionGrid(date);
+            if (webRequest.checkNotModified(grid.getEtag())) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .eTag(grid.getEtag())
+                    .body(ApiResponse.success(grid));
+        } catch (Exception e) {
+            return ResponseEntity.ok(ApiResponse.error("获取场次矩阵失败: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * 订阅场次变化推送（公开API，无需认证）
+     * 以Server-Sent Events推送事件 slots，数据为合并后的场次变化列表；
+     * 指定date时只推送该日期的变化。客户端保持一个连接即可，不需要轮询场次列表
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamSlotChanges(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        SseEmitter emitter = slotChangeBroadcaster.subscribe(date);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+    
+    /**
+     * 查询指定版本之后的场次变化（公开API，无需认证）
+     * 首次同步时不带since：先取得当前版本号和纪元，再全量获取场次，之后用返回的版本号和纪元增量查询；
+     * 返回resync=true时需要重新全量获取
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ApiResponse<SyncDelta>> getSessionChanges(
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) String epoch,
+            @RequestParam(defaultValue = "500") int limit) {
+        try {
+            SyncDelta delta = sessionChangeLog.changesSince(since, epoch, Math.min(Math.max(limit, 1), 5000));
+            return ResponseEntity.ok(ApiResponse.success(delta));
+        } catch (Exception e) {
+            return ResponseEntity.ok(ApiResponse.error("获取场次变化失败: " + e.getMessage()));
+        }
+    }
+    
     /**
      * 手动生成次日场次（管理员功能）
      * 根据所有场次模板生成次日场次，包括不开放的场次（以保留备注信息）
@@ -1,15 +1,26 @@
 package com.sport_venue_booking_system.controller;
 
+import com.sport_venue_booking_system.common.BusinessException;
 import com.sport_venue_booking_system.common.ResultCode;
 import com.sport_venue_booking_system.dto.ApiResponse;
+import com.sport_venue_booking_system.dto.CursorPage;
 import com.sport_venue_booking_system.dto.OrderVerificationResponse;
+import com.sport_venue_booking_system.dto.SlotHold;
 import com.sport_venue_booking_system.dto.UserUpdateRequest;
 import com.sport_venue_booking_system.entity.User;
+import com.sport_venue_booking_system.security.AuthenticatedUser;
+import com.sport_venue_booking_system.service.BookingSequencer;
+import com.sport_venue_booking_system.service.IdempotencyService;
 import com.sport_venue_booking_system.service.OrderService;
+import com.sport_venue_booking_system.service.PasswordHashingService;
 import com.sport_venue_booking_system.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
@@ -28,6 +39,12 @@ public class UserController {
     
     @Autowired
     private OrderService orderService;
+    
+    @Autowired
+    private BookingSequencer bookingSequencer;
+    
+    @Autowired
+    private IdempotencyService idempotencyService;
 
     @GetMapping("/info")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
@@ -80,6 +97,9 @@ public class UserController {
                 System.out.println("User info update failed: " + result);
                 return ApiResponse.error(ResultCode.FAIL, result);
             }
+        } catch (PasswordHashingService.BusyException e) {
+            // 校验旧密码或加密新密码时哈希线程池繁忙，交给 PasswordHashingExceptionHandler 统一返回429
+            throw e;
         } catch (Exception e) {
             System.out.println("Error updating user info: " + e.getMessage());
             e.printStackTrace();
@@ -90,25 +110,18 @@ public class UserController {
     @GetMapping("/orders")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     public ApiResponse<Object> getUserOrders(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @RequestParam(required = false) Integer page,
             @RequestParam(required = false) Integer size) {
         try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            String username = authentication.getName();
-            
-            User user = userService.getUserInfo(username);
-            if (user == null) {
-                return ApiResponse.error(ResultCode.USER_NOT_FOUND, "用户不存在");
-            }
-            
             // 如果提供了分页参数，使用分页查询
             if (page != null && size != null) {
                 org.springframework.data.domain.Page<OrderVerificationResponse> ordersPage = 
-                    orderService.getUserOrders(user.getId(), page, size);
+                    orderService.getUserOrders(currentUser.id(), page, size);
                 return ApiResponse.success(ordersPage);
             } else {
                 // 保持向后兼容，返回所有订单
-                List<OrderVerificationResponse> orders = orderService.getUserOrders(user.getId());
+                List<OrderVerificationResponse> orders = orderService.getUserOrders(currentUser.id());
                 return ApiResponse.success(orders);
             }
         } catch (Exception e) {
@@ -116,18 +129,26 @@ public class UserController {
         }
     }
     
+    @GetMapping("/orders/feed")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ApiResponse<CursorPage<OrderVerificationResponse>> getUserOrderFeed(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            return ApiResponse.success(orderService.getUserOrderFeed(currentUser.id(), cursor, size, withTotal));
+        } catch (BusinessException e) {
+            return ApiResponse.error(e.getResultCode(), e.getMessage());
+        } catch (Exception e) {
+            return ApiResponse.error(ResultCode.FAIL, "获取订单列表失败: " + e.getMessage());
+        }
+    }
+    
     @PostMapping("/orders/{orderId}/cancel")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ApiResponse<String> cancelOrder(@PathVariable String orderId) {
+    public ApiResponse<String> cancelOrder(@AuthenticationPrincipal AuthenticatedUser currentUser, @PathVariable String orderId) {
         try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            String username = authentication.getName();
-            
-            User user = userService.getUserInfo(username);
-            if (user == null) {
-                return ApiResponse.error(ResultCode.USER_NOT_FOUND, "用户不存在");
-            }
-            
             // 将字符串订单ID转换为Long类型
             Long orderIdLong;
             try {
@@ -136,7 +157,7 @@ public class UserController {
                 return ApiResponse.error(ResultCode.FAIL, "订单ID格式错误");
             }
             
-            boolean success = orderService.cancelUserOrder(orderIdLong, user.getId());
+            boolean success = orderService.cancelUserOrder(orderIdLong, currentUser.id());
             if (success) {
                 return ApiResponse.success("订单取消成功");
             } else {
@@ -149,21 +170,85 @@ public class UserController {
     
     @PostMapping("/orders")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ApiResponse<Map<String, Object>> createOrder(@RequestBody CreateOrderRequest request) {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> createOrder(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestBody CreateOrderRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return ResponseEntity.ok(doCreateOrder(currentUser, request));
+        }
+        if (idempotencyKey.length() > 64) {
+            return ResponseEntity.ok(ApiResponse.error(ResultCode.PARAMETER_INVALID, "Idempotency-Key长度不能超过64个字符"));
+        }
+        
+        // 带幂等键的重试直接返回首次的响应，不再执行下单逻辑；同一个键用于不同场次时返回422
         try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            String username = authentication.getName();
+            return ResponseEntity.ok(idempotencyService.execute(currentUser.username(), idempotencyKey,
+                    String.valueOf(request.getSessionIds()), () -> doCreateOrder(currentUser, request)));
+        } catch (IdempotencyService.KeyReusedException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(ApiResponse.error(ResultCode.UNPROCESSABLE_ENTITY, e.getMessage()));
+        } catch (IdempotencyService.InProgressException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(ApiResponse.error(ResultCode.CONFLICT, e.getMessage()));
+        }
+    }
+    
+    private ApiResponse<Map<String, Object>> doCreateOrder(AuthenticatedUser currentUser, CreateOrderRequest request) {
+        try {
+            if (request.getSessionIds() == null || request.getSessionIds().isEmpty()) {
+                return ApiResponse.error(ResultCode.FAIL, "请选择要预订的场次");
+            }
             
-            User user = userService.getUserInfo(username);
-            if (user == null) {
-                return ApiResponse.error(ResultCode.USER_NOT_FOUND, "用户不存在");
+            Order order;
+            if (bookingSequencer.isEnabled()) {
+                // 排队模式：由场地写线程处理，等待处理结果
+                order = bookingSequencer.book(currentUser.id(), request.getSessionIds());
+            } else {
+                order = orderService.createOrder(currentUser.id(), request.getSessionIds());
             }
             
+            Map<String, Object> result = Map.of(
+                "orderId", order.getId(),
+                "totalPrice", order.getTotalPrice(),
+                "message", "订单创建成功"
+            );
+            
+            return ApiResponse.success(result);
+        } catch (BookingSequencer.OutcomeUnknownException e) {
+            // 排队等待超时但已开始处理，订单可能已创建，不返回失败
+            return ApiResponse.error(ResultCode.ACCEPTED, e.getMessage());
+        } catch (BusinessException e) {
+            // 返回业务错误码，如库存加载中时为 SERVICE_UNAVAILABLE，客户端可稍后重试
+            return ApiResponse.error(e.getResultCode(), "创建订单失败: " + e.getMessage());
+        } catch (Exception e) {
+            return ApiResponse.error(ResultCode.FAIL, "创建订单失败: " + e.getMessage());
+        }
+    }
+    
+    @PostMapping("/orders/hold")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ApiResponse<SlotHold> holdSessions(@AuthenticationPrincipal AuthenticatedUser currentUser, @RequestBody CreateOrderRequest request) {
+        try {
             if (request.getSessionIds() == null || request.getSessionIds().isEmpty()) {
                 return ApiResponse.error(ResultCode.FAIL, "请选择要预订的场次");
             }
             
-            Order order = orderService.createOrder(user.getId(), request.getSessionIds());
+            SlotHold hold = orderService.holdSessions(currentUser.id(), request.getSessionIds());
+            return ApiResponse.success("场次预留成功，请在截止时间前确认", hold);
+        } catch (BusinessException e) {
+            return ApiResponse.error(e.getResultCode(), "预留场次失败: " + e.getMessage());
+        } catch (Exception e) {
+            return ApiResponse.error(ResultCode.FAIL, "预留场次失败: " + e.getMessage());
+        }
+    }
+    
+    @PostMapping("/orders/hold/{holdId}/confirm")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ApiResponse<Map<String, Object>> confirmHold(@AuthenticationPrincipal AuthenticatedUser currentUser, @PathVariable String holdId) {
+        try {
+            Order order = orderService.confirmHold(currentUser.id(), holdId);
             
             Map<String, Object> result = Map.of(
                 "orderId", order.getId(),
@@ -172,8 +257,21 @@ public class UserController {
             );
             
             return ApiResponse.success(result);
+        } catch (BusinessException e) {
+            return ApiResponse.error(e.getResultCode(), "确认预留失败: " + e.getMessage());
         } catch (Exception e) {
-            return ApiResponse.error(ResultCode.FAIL, "创建订单失败: " + e.getMessage());
+            return ApiResponse.error(ResultCode.FAIL, "确认预留失败: " + e.getMessage());
+        }
+    }
+    
+    @DeleteMapping("/orders/hold/{holdId}")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ApiResponse<String> cancelHold(@AuthenticationPrincipal AuthenticatedUser currentUser, @PathVariable String holdId) {
+        try {
+            orderService.cancelHold(currentUser.id(), holdId);
+            return ApiResponse.success("预留已取消");
+        } catch (Exception e) {
+            return ApiResponse.error(ResultCode.FAIL, "取消预留失败: " + e.getMessage());
         }
     }
 
@@ -0,0 +1,17 @@
+package com.sport_venue_booking_system.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor; // 下一页游标，没有更多数据时为null
+    private boolean hasMore;
+    private Long total;        // 总条数，仅在请求时统计
+}
\ No newline at end of file
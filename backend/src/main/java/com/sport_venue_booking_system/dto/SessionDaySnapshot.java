@@ -0,0 +1,21 @@
+package com.sport_venue_booking_system.dto;
+
+import com.sport_venue_booking_system.entity.Session;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class SessionDaySnapshot {
+    private LocalDate date;
+    private String etag;           // 由缓存加载序号生成，重新加载后改变
+    private List<Session> sessions; // 只读列表，不要修改其中的场次
+    private volatile SessionGrid grid; // 由场次列表生成的矩阵，首次请求时生成并随快照缓存
+    
+    public SessionDaySnapshot(LocalDate date, String etag, List<Session> sessions) {
+        this.date = date;
+        this.etag = etag;
+        this.sessions = sessions;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.sport_venue_booking_system.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 场地×小时的场次矩阵
+ * 单元格按场地优先排列，第 i 个单元格对应 courts[i / hours.size()] 在 hours[i % hours.size()] 点开始的场次。
+ * 位图为Base64编码的字节数组，第 i 位位于第 i/8 个字节的第 i%8 位（低位在前）。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionGrid {
+    private LocalDate date;
+    private List<String> courts;
+    private List<Integer> hours;
+    private String active;          // 位图：场次存在且开放
+    private String booked;          // 位图：场次已预订
+    private List<BigDecimal> prices; // 去重后的价格表
+    private String priceIndex;      // 每个单元格一个字节，为价格表下标，无场次为255
+    private long[] sessionIds;      // 每个单元格的场次ID，无场次为0
+    
+    @JsonIgnore
+    private String etag;
+}
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.sport_venue_booking_system.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.sport_venue_booking_system.entity.Session;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 场次变化（提交后的场次状态）
+ */
+@Data
+@NoArgsConstructor
+public class SlotChange {
+    @JsonProperty("session_id")
+    private Long sessionId;
+    
+    @JsonProperty("court_name")
+    private String courtName;
+    
+    @JsonProperty("start_time")
+    private LocalDateTime startTime;
+    
+    private BigDecimal price;
+    
+    @JsonProperty("is_active")
+    private Boolean isActive;
+    
+    @JsonProperty("is_booked")
+    private Boolean isBooked;
+    
+    private Boolean removed = false; // 场次已被删除
+    
+    public SlotChange(Long sessionId, String courtName, LocalDateTime startTime, BigDecimal price,
+                      Boolean isActive, Boolean isBooked) {
+        this.sessionId = sessionId;
+        this.courtName = courtName;
+        this.startTime = startTime;
+        this.price = price;
+        this.isActive = isActive;
+        this.isBooked = isBooked;
+    }
+    
+    public static SlotChange of(Session session) {
+        return new SlotChange(session.getId(), session.getCourtName(), session.getStartTime(), session.getPrice(),
+                session.getIsActive(), session.getIsBooked());
+    }
+    
+    public static SlotChange removed(Session session) {
+        SlotChange change = of(session);
+        change.setRemoved(true);
+        return change;
+    }
+}
\ No newline at end of file
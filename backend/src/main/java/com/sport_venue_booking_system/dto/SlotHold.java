@@ -0,0 +1,19 @@
+package com.sport_venue_booking_system.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotHold {
+    private String holdId;
+    private List<Long> sessionIds;
+    private BigDecimal totalPrice;
+    private LocalDateTime expireTime; // 预留截止时间，超时后场次自动释放
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.sport_venue_booking_system.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncDelta {
+    private long version;            // 客户端下次请求使用的版本号
+    private String epoch;            // 变化日志纪元，下次请求时与版本号一起提交
+    private boolean resync;          // 变化记录已不完整，客户端需要重新获取全部场次
+    private boolean hasMore;         // 还有更多变化，客户端应立即用新版本号继续请求
+    private List<SlotChange> changes; // 变化后的场次状态，同一场次只返回最后的状态
+}
\ No newline at end of file
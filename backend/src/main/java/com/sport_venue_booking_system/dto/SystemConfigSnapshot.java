@@ -0,0 +1,70 @@
+package com.sport_venue_booking_system.dto;
+
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 系统配置快照（不可变）
+ * 加载时一次解析全部配置项，格式错误的配置项使用默认值，读取时不再访问数据库或重复解析。
+ *
+ * @param version 配置版本号（sync_version表中system_config序列的值），用于判断其他实例是否已修改配置
+ */
+public record SystemConfigSnapshot(long version,
+                                   Map<String, String> values,
+                                   String venueName,
+                                   int maxOrderSessions,
+                                   int cancelTimeLimit,
+                                   LocalTime openTime,
+                                   LocalTime closeTime,
+                                   int holdDurationMinutes,
+                                   int bookingHorizonDays) {
+
+    public static final int DEFAULT_MAX_ORDER_SESSIONS = 3;
+    public static final int DEFAULT_CANCEL_TIME_LIMIT = 4;
+    public static final LocalTime DEFAULT_OPEN_TIME = LocalTime.of(9, 0);
+    public static final LocalTime DEFAULT_CLOSE_TIME = LocalTime.of(21, 0);
+    public static final int DEFAULT_HOLD_DURATION_MINUTES = 5;
+    public static final int DEFAULT_BOOKING_HORIZON_DAYS = 7;
+    public static final int MAX_BOOKING_HORIZON_DAYS = 30;
+
+    public static SystemConfigSnapshot of(long version, Map<String, String> values) {
+        Map<String, String> copy = Collections.unmodifiableMap(new HashMap<>(values));
+        LocalTime openTime = DEFAULT_OPEN_TIME;
+        LocalTime closeTime = DEFAULT_CLOSE_TIME;
+        String businessHours = copy.get("business_hours");
+        if (businessHours != null) {
+            // 格式: HH:mm-HH:mm
+            String[] parts = businessHours.split("-");
+            try {
+                LocalTime open = LocalTime.parse(parts[0].trim());
+                LocalTime close = LocalTime.parse(parts[1].trim());
+                openTime = open;
+                closeTime = close;
+            } catch (RuntimeException e) {
+                // 使用默认值
+            }
+        }
+        return new SystemConfigSnapshot(version, copy,
+                copy.get("venue_name"),
+                parseInt(copy.get("max_order_sessions"), DEFAULT_MAX_ORDER_SESSIONS),
+                parseInt(copy.get("cancel_time_limit"), DEFAULT_CANCEL_TIME_LIMIT),
+                openTime,
+                closeTime,
+                Math.max(1, parseInt(copy.get("hold_duration_minutes"), DEFAULT_HOLD_DURATION_MINUTES)),
+                Math.min(Math.max(parseInt(copy.get("booking_horizon_days"), DEFAULT_BOOKING_HORIZON_DAYS), 1),
+                        MAX_BOOKING_HORIZON_DAYS));
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.sport_venue_booking_system.dto;
+
+import com.sport_venue_booking_system.entity.SessionTemplate;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 模板变化同步到已生成场次的结果（预览时为将要修改的数量）
+ */
+@Data
+@NoArgsConstructor
+public class TemplatePropagation {
+    private String changeType;        // create/update/move/delete/none
+    private SessionTemplate template; // 保存后的模板，删除时为null
+    private int priceUpdates;         // 需要修改价格的场次数
+    private int activeUpdates;        // 需要修改开放状态的场次数
+    private int noteUpdates;          // 需要修改备注的场次数
+    private int removals;             // 需要删除的未预订场次数
+    private int insertions;           // 已生成场次的日期中需要补充的场次数
+    private long bookedSkipped;       // 已预订（含预留中）而保持不变的场次数
+    private int editedSkipped;        // 删除或移动时单独修改过（与模板原值不同）而保留的场次数
+    private boolean applied;          // 是否已执行，预览时为false
+    private int appliedCount;         // 实际修改的场次数
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.sport_venue_booking_system.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_record")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    @Id
+    @Column(name = "record_key", length = 150)
+    private String recordKey; // 用户名 + 幂等键
+    
+    @Column(name = "request_hash", length = 64)
+    private String requestHash; // 请求内容的SHA-256摘要
+    
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody; // 首次请求的响应，处理中时为null
+    
+    @Column(name = "create_time", nullable = false)
+    private LocalDateTime createTime;
+}
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.sport_venue_booking_system.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Data;
@@ -40,4 +41,8 @@ public class Session {
     
     @Column(columnDefinition = "TEXT")
     private String note;
+    
+    @Column(name = "hold_until")
+    @JsonIgnore
+    private LocalDateTime holdUntil; // 预留截止时间，预留期间is_booked为true
 } 
\ No newline at end of file
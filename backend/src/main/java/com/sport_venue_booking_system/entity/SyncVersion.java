@@ -0,0 +1,20 @@
+package com.sport_venue_booking_system.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Entity
+@Table(name = "sync_version")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncVersion {
+    @Id
+    @Column(length = 50)
+    private String name; // 版本序列名称
+    
+    @Column(nullable = false)
+    private Long version; // 已分配的最大版本号
+}
\ No newline at end of file
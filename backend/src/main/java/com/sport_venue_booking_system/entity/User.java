@@ -1,5 +1,6 @@
 package com.sport_venue_booking_system.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -27,4 +28,9 @@ public class User {
     
     @Column(name = "is_admin", nullable = false)
     private Boolean isAdmin = false;
+    
+    // 令牌版本，修改密码、用户名或权限后递增，之前签发的令牌随之失效
+    @JsonIgnore
+    @Column(name = "token_version", nullable = false)
+    private Integer tokenVersion = 0;
 } 
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.sport_venue_booking_system.event;
+
+import com.sport_venue_booking_system.dto.SlotChange;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 场次变化事件，在修改场次的事务中发布，监听方应在事务提交后处理
+ */
+@Getter
+@AllArgsConstructor
+public class SessionChangedEvent {
+    
+    private final List<SlotChange> changes;
+    
+    private final LocalDate expiredBefore; // 清除过期场次时为清除的截止日期，否则为null
+    
+    public static SessionChangedEvent of(List<SlotChange> changes) {
+        return new SessionChangedEvent(changes, null);
+    }
+    
+    public static SessionChangedEvent expired(LocalDate expiredBefore) {
+        return new SessionChangedEvent(Collections.emptyList(), expiredBefore);
+    }
+    
+    /**
+     * 受影响的日期
+     */
+    public Set<LocalDate> getAffectedDates() {
+        Set<LocalDate> dates = new TreeSet<>();
+        for (SlotChange change : changes) {
+            dates.add(change.getStartTime().toLocalDate());
+        }
+        return dates;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.sport_venue_booking_system.repository;
+
+import com.sport_venue_booking_system.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    
+    /**
+     * 删除过期的幂等记录
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createTime < :expireBefore")
+    int deleteExpired(@Param("expireBefore") LocalDateTime expireBefore);
+    
+    /**
+     * 插入处理中的记录，键已存在时抛出 DataIntegrityViolationException
+     * （不使用 ON DUPLICATE KEY UPDATE：连接未设置 useAffectedRows 时，键已存在也返回1，无法判断是否插入成功）
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO idempotency_record (record_key, request_hash, response_body, create_time) " +
+                   "VALUES (:recordKey, :requestHash, NULL, :createTime)",
+           nativeQuery = true)
+    int insertPending(@Param("recordKey") String recordKey, @Param("requestHash") String requestHash,
+                      @Param("createTime") LocalDateTime createTime);
+    
+    /**
+     * 保存首次请求的响应
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.responseBody = :responseBody WHERE r.recordKey = :recordKey")
+    int complete(@Param("recordKey") String recordKey, @Param("responseBody") String responseBody);
+    
+    /**
+     * 删除处理中的记录（请求失败时）
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.recordKey = :recordKey AND r.responseBody IS NULL")
+    int deletePending(@Param("recordKey") String recordKey);
+    
+    /**
+     * 删除指定键的过期记录
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.recordKey = :recordKey AND r.createTime < :expireBefore")
+    int deleteExpiredKey(@Param("recordKey") String recordKey, @Param("expireBefore") LocalDateTime expireBefore);
+}
\ No newline at end of file
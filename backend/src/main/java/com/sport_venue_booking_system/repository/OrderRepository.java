@@ -4,6 +4,8 @@ import com.sport_venue_booking_system.entity.Order;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -24,4 +26,25 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     
     // 根据用户ID和状态查询订单
     List<Order> findByUserIdAndStatusOrderByCreateTimeDesc(Long userId, Order.OrderStatus status);
+    
+    long countByUserId(Long userId);
+    
+    // 游标分页：按(create_time, id)倒序定位，使用索引idx_user_create_time，不需要OFFSET
+    @Query("SELECT o FROM Order o WHERE o.userId = :userId ORDER BY o.createTime DESC, o.id DESC")
+    List<Order> findUserOrderFeed(@Param("userId") Long userId, Pageable limit);
+    
+    @Query("SELECT o FROM Order o WHERE o.userId = :userId " +
+           "AND (o.createTime < :createTime OR (o.createTime = :createTime AND o.id < :id)) " +
+           "ORDER BY o.createTime DESC, o.id DESC")
+    List<Order> findUserOrderFeedAfter(@Param("userId") Long userId, @Param("createTime") LocalDateTime createTime,
+                                       @Param("id") Long id, Pageable limit);
+    
+    // 全部订单游标分页（管理端），使用索引idx_create_time
+    @Query("SELECT o FROM Order o ORDER BY o.createTime DESC, o.id DESC")
+    List<Order> findOrderFeed(Pageable limit);
+    
+    @Query("SELECT o FROM Order o " +
+           "WHERE o.createTime < :createTime OR (o.createTime = :createTime AND o.id < :id) " +
+           "ORDER BY o.createTime DESC, o.id DESC")
+    List<Order> findOrderFeedAfter(@Param("createTime") LocalDateTime createTime, @Param("id") Long id, Pageable limit);
 } 
\ No newline at end of file
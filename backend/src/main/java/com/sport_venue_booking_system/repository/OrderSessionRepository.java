@@ -4,9 +4,13 @@ import com.sport_venue_booking_system.entity.OrderSession;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderSessionRepository extends JpaRepository<OrderSession, Long> {
     List<OrderSession> findByOrderId(Long orderId);
+    
+    // 批量查询多个订单的场次快照
+    List<OrderSession> findByOrderIdIn(Collection<Long> orderIds);
 } 
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.sport_venue_booking_system.repository;
+
+import com.sport_venue_booking_system.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+    
+    /**
+     * 插入撤销记录，同一令牌已撤销时不修改
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO revoked_token (token_hash, user_id, expires_at, revoked_at) " +
+                   "VALUES (:tokenHash, :userId, :expiresAt, :revokedAt) ON DUPLICATE KEY UPDATE token_hash = token_hash",
+           nativeQuery = true)
+    int insertIgnoringDuplicate(@Param("tokenHash") String tokenHash, @Param("userId") Long userId,
+                                @Param("expiresAt") LocalDateTime expiresAt, @Param("revokedAt") LocalDateTime revokedAt);
+    
+    /**
+     * 查找指定时间之后撤销且令牌未过期的记录（用于增量加载）
+     */
+    List<RevokedToken> findByRevokedAtAfterAndExpiresAtAfter(LocalDateTime since, LocalDateTime now);
+    
+    /**
+     * 删除令牌已过期的撤销记录
+     */
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
\ No newline at end of file
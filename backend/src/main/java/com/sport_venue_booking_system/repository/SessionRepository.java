@@ -1,5 +1,6 @@
 package com.sport_venue_booking_system.repository;
 
+import com.sport_venue_booking_system.dto.SlotChange;
 import com.sport_venue_booking_system.entity.Session;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
@@ -7,8 +8,11 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -29,6 +33,11 @@ public interface SessionRepository extends JpaRepository<Session, Long> {
      */
     List<Session> findByStartTimeBetweenOrderByStartTime(LocalDateTime start, LocalDateTime end);
     
+    /**
+     * 查找指定时间及以后的场次
+     */
+    List<Session> findByStartTimeGreaterThanEqualOrderByStartTime(LocalDateTime start);
+    
     /**
      * 查找指定日期和场地名称的场次
      */
@@ -49,11 +58,88 @@ public interface SessionRepository extends JpaRepository<Session, Long> {
             LocalDateTime start, LocalDateTime end);
     
     /**
-     * 删除过期场次
+     * 批量更新场次预订状态
      */
     @Modifying
-    @Query("DELETE FROM Session s WHERE s.startTime < :currentTime")
-    void deleteExpiredSessions(@Param("currentTime") LocalDateTime currentTime);
+    @Query("UPDATE Session s SET s.isBooked = :booked WHERE s.id IN :ids")
+    int updateBookedStatus(@Param("ids") List<Long> ids, @Param("booked") boolean booked);
+    
+    /**
+     * 条件占用场次：只更新未预订、开放且未开始的场次，返回实际占用的数量
+     */
+    @Modifying
+    @Query("UPDATE Session s SET s.isBooked = true WHERE s.id IN :ids AND s.isBooked = false " +
+           "AND s.isActive = true AND s.startTime > :now")
+    int claimSessions(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+    
+    /**
+     * 条件释放场次：只更新已预订的场次，返回实际释放的数量
+     */
+    @Modifying
+    @Query("UPDATE Session s SET s.isBooked = false WHERE s.courtName = :courtName " +
+           "AND s.startTime = :startTime AND s.isBooked = true")
+    int releaseSession(@Param("courtName") String courtName, @Param("startTime") LocalDateTime startTime);
+    
+    /**
+     * 预留场次：条件占用并记录预留截止时间，返回实际预留的数量
+     */
+    @Modifying
+    @Query("UPDATE Session s SET s.isBooked = true, s.holdUntil = :holdUntil WHERE s.id IN :ids " +
+           "AND s.isBooked = false AND s.isActive = true AND s.startTime > :now")
+    int holdSessions(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now,
+                     @Param("holdUntil") LocalDateTime holdUntil);
+    
+    /**
+     * 确认预留：清除预留截止时间，场次保持已预订，返回实际确认的数量
+     */
+    @Modifying
+    @Query("UPDATE Session s SET s.holdUntil = null WHERE s.id IN :ids AND s.holdUntil = :holdUntil")
+    int confirmHold(@Param("ids") Collection<Long> ids, @Param("holdUntil") LocalDateTime holdUntil);
+    
+    /**
+     * 释放预留：只释放仍处于该次预留中的场次，返回实际释放的数量
+     */
+    @Modifying
+    @Query("UPDATE Session s SET s.isBooked = false, s.holdUntil = null WHERE s.id IN :ids AND s.holdUntil = :holdUntil")
+    int releaseHold(@Param("ids") Collection<Long> ids, @Param("holdUntil") LocalDateTime holdUntil);
+    
+    /**
+     * 查找处于预留中的场次
+     */
+    List<Session> findByHoldUntilIsNotNull();
+    
+    /**
+     * 查询一组场次涉及的场地名称
+     */
+    @Query("SELECT DISTINCT s.courtName FROM Session s WHERE s.id IN :ids")
+    List<String> findCourtNamesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * 查询时间范围内已存在的场次键 [场地名称, 开始时间]
+     */
+    @Query("SELECT s.courtName, s.startTime FROM Session s WHERE s.startTime >= :start AND s.startTime < :end")
+    List<Object[]> findSlotKeysBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    
+    /**
+     * 按日期统计时间范围内的场次数量 [日期, 数量]
+     */
+    @Query(value = "SELECT DATE(start_time) AS day, COUNT(*) AS cnt FROM session " +
+                   "WHERE start_time >= :start AND start_time < :end GROUP BY DATE(start_time)", nativeQuery = true)
+    List<Object[]> countSessionsPerDay(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    
+    /**
+     * 查询一组场次的当前状态（用于发布场次变化）
+     */
+    @Query("SELECT new com.sport_venue_booking_system.dto.SlotChange(s.id, s.courtName, s.startTime, s.price, " +
+           "s.isActive, s.isBooked) FROM Session s WHERE s.id IN :ids")
+    List<SlotChange> findSlotChangesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * 查询指定场地和时间场次的当前状态（用于发布场次变化）
+     */
+    @Query("SELECT new com.sport_venue_booking_system.dto.SlotChange(s.id, s.courtName, s.startTime, s.price, " +
+           "s.isActive, s.isBooked) FROM Session s WHERE s.courtName = :courtName AND s.startTime = :startTime")
+    List<SlotChange> findSlotChanges(@Param("courtName") String courtName, @Param("startTime") LocalDateTime startTime);
     
     /**
      * 检查指定场地和时间段是否存在场次
@@ -65,4 +151,85 @@ public interface SessionRepository extends JpaRepository<Session, Long> {
      */
     @Query("SELECT COUNT(s) FROM Session s WHERE s.startTime BETWEEN :startTime AND :endTime")
     long countSessionsBetween(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
-} 
\ No newline at end of file
+    
+    // 模板同步：按模板的(场地, 时刻)匹配 :now 之后未预订的场次，已预订（含预留中）的场次不修改
+    
+    /**
+     * 查找模板对应的未预订未来场次
+     */
+    @Query(value = "SELECT * FROM session WHERE court_name = :courtName AND TIME(start_time) = :startTime " +
+                   "AND start_time > :now AND is_booked = 0", nativeQuery = true)
+    List<Session> findUnbookedByTemplate(@Param("courtName") String courtName, @Param("startTime") LocalTime startTime,
+                                         @Param("now") LocalDateTime now);
+    
+    /**
+     * 统计模板对应的已预订未来场次
+     */
+    @Query(value = "SELECT COUNT(*) FROM session WHERE court_name = :courtName AND TIME(start_time) = :startTime " +
+                   "AND start_time > :now AND is_booked = 1", nativeQuery = true)
+    long countBookedByTemplate(@Param("courtName") String courtName, @Param("startTime") LocalTime startTime,
+                               @Param("now") LocalDateTime now);
+    
+    /**
+     * 模板价格修改后同步到未预订的未来场次，只修改价格仍为模板原价格的场次（单独改过价格的场次保持不变）
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE session SET price = :price WHERE court_name = :courtName AND TIME(start_time) = :startTime " +
+                   "AND start_time > :now AND is_booked = 0 AND price = :oldPrice", nativeQuery = true)
+    int updatePriceByTemplate(@Param("courtName") String courtName, @Param("startTime") LocalTime startTime,
+                              @Param("now") LocalDateTime now, @Param("oldPrice") BigDecimal oldPrice,
+                              @Param("price") BigDecimal price);
+    
+    /**
+     * 模板开放状态修改后同步，只修改开放状态仍与模板原状态相同的场次
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE session SET is_active = :active WHERE court_name = :courtName AND TIME(start_time) = :startTime " +
+                   "AND start_time > :now AND is_booked = 0 AND is_active = :oldActive", nativeQuery = true)
+    int updateActiveByTemplate(@Param("courtName") String courtName, @Param("startTime") LocalTime startTime,
+                               @Param("now") LocalDateTime now, @Param("oldActive") boolean oldActive,
+                               @Param("active") boolean active);
+    
+    /**
+     * 模板备注修改后同步，只修改备注仍与模板原备注相同的场次
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE session SET note = :note WHERE court_name = :courtName AND TIME(start_time) = :startTime " +
+                   "AND start_time > :now AND is_booked = 0 AND note <=> :oldNote", nativeQuery = true)
+    int updateNoteByTemplate(@Param("courtName") String courtName, @Param("startTime") LocalTime startTime,
+                             @Param("now") LocalDateTime now, @Param("oldNote") String oldNote,
+                             @Param("note") String note);
+    
+    /**
+     * 删除或移动模板后删除未预订的未来场次，只删除价格、开放状态和备注仍与模板原值相同的场次（单独修改过的场次保留）
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "DELETE FROM session WHERE court_name = :courtName AND TIME(start_time) = :startTime " +
+                   "AND start_time > :now AND is_booked = 0 AND price = :oldPrice AND is_active = :oldActive " +
+                   "AND note <=> :oldNote", nativeQuery = true)
+    int deleteUnbookedByTemplate(@Param("courtName") String courtName, @Param("startTime") LocalTime startTime,
+                                 @Param("now") LocalDateTime now, @Param("oldPrice") BigDecimal oldPrice,
+                                 @Param("oldActive") boolean oldActive, @Param("oldNote") String oldNote);
+    
+    /**
+     * 统计已生成场次的日期中缺少该模板场次的天数（只统计 :now 之后的时刻）
+     */
+    @Query(value = "SELECT COUNT(*) FROM (SELECT DISTINCT DATE(start_time) AS day FROM session " +
+                   "WHERE start_time >= :today) d WHERE TIMESTAMP(d.day, :startTime) > :now " +
+                   "AND NOT EXISTS (SELECT 1 FROM session s WHERE s.court_name = :courtName " +
+                   "AND s.start_time = TIMESTAMP(d.day, :startTime))", nativeQuery = true)
+    long countMissingForTemplate(@Param("courtName") String courtName, @Param("startTime") LocalTime startTime,
+                                 @Param("today") LocalDateTime today, @Param("now") LocalDateTime now);
+    
+    /**
+     * 在已生成场次的日期中补充该模板的场次，已存在的场次由唯一键跳过
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "INSERT INTO session (court_name, start_time, price, is_active, is_booked, note) " +
+                   "SELECT :courtName, TIMESTAMP(d.day, :startTime), :price, :active, 0, :note " +
+                   "FROM (SELECT DISTINCT DATE(start_time) AS day FROM session WHERE start_time >= :today) d " +
+                   "WHERE TIMESTAMP(d.day, :startTime) > :now ON DUPLICATE KEY UPDATE id = id", nativeQuery = true)
+    int insertForTemplate(@Param("courtName") String courtName, @Param("startTime") LocalTime startTime,
+                          @Param("price") BigDecimal price, @Param("active") boolean active, @Param("note") String note,
+                          @Param("today") LocalDateTime today, @Param("now") LocalDateTime now);
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.sport_venue_booking_system.repository;
+
+import com.sport_venue_booking_system.entity.SyncVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SyncVersionRepository extends JpaRepository<SyncVersion, String> {
+    
+    /**
+     * 增加版本号，返回更新的行数（序列不存在时为0）
+     */
+    @Modifying
+    @Query("UPDATE SyncVersion v SET v.version = v.version + :delta WHERE v.name = :name")
+    int increment(@Param("name") String name, @Param("delta") long delta);
+}
\ No newline at end of file
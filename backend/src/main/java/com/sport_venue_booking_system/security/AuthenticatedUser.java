@@ -0,0 +1,20 @@
+package com.sport_venue_booking_system.security;
+
+import java.security.Principal;
+
+/**
+ * 已认证用户（由令牌中的签名claims构建，不查询数据库）
+ * 控制器通过 @AuthenticationPrincipal 注入；实现Principal，Authentication.getName()返回用户名
+ *
+ * @param id           用户ID（uid）
+ * @param username     用户名
+ * @param admin        是否为管理员（adm）
+ * @param tokenVersion 签发令牌时的令牌版本（ver）
+ */
+public record AuthenticatedUser(Long id, String username, boolean admin, int tokenVersion) implements Principal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
\ No newline at end of file
@@ -1,20 +1,28 @@
 package com.sport_venue_booking_system.security;
 
+import com.sport_venue_booking_system.entity.User;
+import com.sport_venue_booking_system.service.RevokedTokenService;
+import com.sport_venue_booking_system.service.TokenVersionService;
+import com.sport_venue_booking_system.service.UserService;
 import com.sport_venue_booking_system.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,7 +35,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private JwtUtil jwtUtil;
 
     @Autowired
-    private UserDetailsService userDetailsService;
+    private UserService userService;
+
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
+    @Autowired
+    private RevokedTokenService revokedTokenService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -35,44 +52,77 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         final String authHeader = request.getHeader("Authorization");
         
-        String username = null;
-        String jwt = null;
-        
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            jwt = authHeader.substring(7);
-            try {
-                username = jwtUtil.getUsernameFromToken(jwt);
-                logger.debug("Extracted username from JWT: " + username);
-            } catch (Exception e) {
-                // Token无效，记录日志但不抛出异常
-                logger.debug("Invalid JWT token: " + e.getMessage());
-            }
-        } else {
+        if (authHeader != null && authHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            long start = System.nanoTime();
+            String outcome = authenticate(authHeader.substring(7), request);
+            long elapsed = System.nanoTime() - start;
+            jwtUtil.recordAuthentication(elapsed);
+            Timer.builder("auth.jwt")
+                    .description("请求认证耗时")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+        } else if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             logger.debug("No Authorization header or invalid format");
         }
         
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            try {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                
-                if (jwtUtil.validateToken(jwt)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                    logger.debug("JWT authentication successful for user: " + username);
-                } else {
-                    logger.debug("JWT token validation failed for user: " + username);
+        filterChain.doFilter(request, response);
+    }
+    
+    /**
+     * 验签并解析token一次，由签名claims构建用户并设置认证信息，不查询数据库；
+     * token无效、令牌版本已失效或token已撤销时记录日志但不抛出异常
+     *
+     * @return 认证结果，用作指标标签
+     */
+    private String authenticate(String jwt, HttpServletRequest request) {
+        AuthenticatedUser user;
+        String outcome = "success";
+        try {
+            String tokenHash = JwtUtil.tokenHash(jwt);
+            Claims claims = jwtUtil.parseToken(jwt, tokenHash);
+            if (revokedTokenService.isRevoked(tokenHash)) {
+                logger.debug("JWT token has been logged out");
+                return "revoked";
+            }
+            user = jwtUtil.getPrincipal(claims);
+            if (user == null) {
+                // 升级前签发的令牌不含用户ID，到期前按用户名查询
+                user = loadLegacyUser(jwtUtil.getUsername(claims));
+                if (user == null) {
+                    return "legacy-rejected";
                 }
-            } catch (Exception e) {
-                logger.error("Error processing JWT authentication for user: " + username, e);
+                outcome = "legacy";
+            } else if (!tokenVersionService.isCurrent(user.id(), user.tokenVersion())) {
+                logger.debug("JWT token revoked for user: {}", user.username());
+                return "stale-version";
             }
-        } else if (username == null) {
-            logger.debug("No username extracted from JWT token");
-        } else {
-            logger.debug("User already authenticated: " + username);
+        } catch (Exception e) {
+            logger.debug("Invalid JWT token: {}", e.getMessage());
+            return "invalid";
         }
         
-        filterChain.doFilter(request, response);
+        String role = user.admin() ? "ROLE_ADMIN" : "ROLE_USER";
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+            user, null, List.of(new SimpleGrantedAuthority(role)));
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+        logger.debug("JWT authentication successful for user: {}", user.username());
+        return outcome;
+    }
+    
+    private AuthenticatedUser loadLegacyUser(String username) {
+        User user = userService.getUserInfo(username);
+        if (user == null) {
+            logger.debug("User not found for JWT token: {}", username);
+            return null;
+        }
+        if (user.getTokenVersion() != null && user.getTokenVersion() > 0) {
+            // 旧版本令牌签发时令牌版本为0，之后修改过密码、用户名或撤销过令牌的用户不再接受
+            logger.debug("Legacy JWT token revoked for user: {}", username);
+            return null;
+        }
+        return new AuthenticatedUser(user.getId(), user.getUsername(), Boolean.TRUE.equals(user.getIsAdmin()), 0);
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
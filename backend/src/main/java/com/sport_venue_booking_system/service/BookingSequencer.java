@@ -0,0 +1,374 @@
+package com.sport_venue_booking_system.service;
+
+import com.sport_venue_booking_system.entity.Order;
+import com.sport_venue_booking_system.entity.Session;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 按场地串行化的预订队列
+ * 每个场地一个有界环形队列和一个写线程，写线程按到达顺序处理预订命令，
+ * 并把一批命令合并到一个事务中提交。合并前用一次查询在队列内预检冲突：
+ * 场次已不可预订或与同批更早的命令重复的命令单独执行，不会使整批回滚；
+ * 其他原因导致批量提交失败时逐个重试，以隔离失败的命令。
+ * 写线程处理每一批命令时持有该场地的锁；跨场地的订单不进入队列，由请求线程按场地名称顺序取得所有涉及场地的锁后执行，
+ * 与每个场地的写线程都是串行的（取锁顺序固定，不会死锁）。
+ * 等待超时时，尚未开始处理的命令被取消，返回失败；已开始处理的命令结果未知，返回处理中，由客户端在订单列表中确认。
+ * 写线程空闲超过 booking.sequencer.idle-timeout-ms 后退出，场地队列随之移除，下次预订时重新创建。
+ */
+@Service
+public class BookingSequencer {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingSequencer.class);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Value("${booking.sequencer.enabled:false}")
+    private boolean enabled;
+
+    @Value("${booking.sequencer.ring-size:1024}")
+    private int ringSize;
+
+    @Value("${booking.sequencer.batch-size:32}")
+    private int batchSize;
+
+    @Value("${booking.sequencer.timeout-ms:5000}")
+    private long timeoutMs;
+
+    @Value("${booking.sequencer.idle-timeout-ms:60000}")
+    private long idleTimeoutMs;
+
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+    // 场地锁不随队列移除，重新创建的队列和跨场地订单使用同一把锁
+    private final Map<String, ReentrantLock> courtLocks = new ConcurrentHashMap<>();
+
+    private volatile boolean running = true;
+
+    public BookingSequencer(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 排队执行预订，等待处理结果
+     *
+     * @throws OutcomeUnknownException 等待超时时命令已开始处理，结果未知
+     */
+    public Order book(Long userId, List<Long> sessionIds) {
+        BookingCommand command = new BookingCommand(userId, sessionIds);
+        List<String> courtNames = sessionService.getCourtNames(sessionIds).stream().sorted().distinct().toList();
+        if (courtNames.isEmpty()) {
+            // 场次均不存在，直接走下单逻辑返回对应错误
+            command.start();
+            command.run(orderService);
+        } else if (courtNames.size() > 1) {
+            runAcrossLanes(command, courtNames);
+        } else {
+            submit(command, courtNames.get(0));
+        }
+        return await(command);
+    }
+
+    private void submit(BookingCommand command, String courtName) {
+        boolean offered = false;
+        while (running) {
+            Lane lane = lanes.computeIfAbsent(courtName, Lane::new);
+            synchronized (lane) {
+                if (!lane.closed) {
+                    offered = lane.queue.offer(command);
+                    break;
+                }
+            }
+            // 队列刚因空闲退出，重新创建
+        }
+        if (!offered) {
+            command.future().completeExceptionally(new RuntimeException("预订请求过多，请稍后重试"));
+        }
+    }
+
+    /**
+     * 跨场地的订单：按场地名称顺序取得全部场地的锁，在请求线程中单独提交
+     */
+    private void runAcrossLanes(BookingCommand command, List<String> courtNames) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        List<ReentrantLock> held = new ArrayList<>(courtNames.size());
+        try {
+            for (String courtName : courtNames) {
+                ReentrantLock lock = courtLock(courtName);
+                if (!lock.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    command.future().completeExceptionally(new RuntimeException("预订请求过多，请稍后重试"));
+                    return;
+                }
+                held.add(lock);
+            }
+            command.start();
+            try {
+                command.future().complete(transactionTemplate.execute(status ->
+                        orderService.createOrder(command.userId(), command.sessionIds())));
+            } catch (Exception e) {
+                command.future().completeExceptionally(e);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            command.future().completeExceptionally(new RuntimeException("预订处理被中断"));
+        } finally {
+            held.forEach(ReentrantLock::unlock);
+        }
+    }
+
+    /**
+     * 等待预订结果，失败时抛出带原因信息的异常；超时时取消尚未开始处理的命令
+     */
+    private Order await(BookingCommand command) {
+        try {
+            try {
+                return command.future().get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (command.cancel()) {
+                    throw new RuntimeException("预订请求排队超时，请稍后重试");
+                }
+                // 已开始处理，事务可能已经提交，不能返回失败
+                try {
+                    return command.future().get(timeoutMs, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException stillRunning) {
+                    throw new OutcomeUnknownException();
+                }
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException(cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OutcomeUnknownException();
+        }
+    }
+
+    private ReentrantLock courtLock(String courtName) {
+        return courtLocks.computeIfAbsent(courtName, name -> new ReentrantLock());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        lanes.values().forEach(lane -> lane.writer.interrupt());
+    }
+
+    private void process(List<BookingCommand> batch) {
+        // 已因等待超时取消的命令不再执行
+        batch.removeIf(command -> !command.start());
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<BookingCommand> remaining = new ArrayList<>();
+        List<BookingCommand> merged = batch.size() > 1 ? excludeConflicts(batch, remaining) : batch;
+        if (merged.size() > 1) {
+            try {
+                List<Order> orders = transactionTemplate.execute(status ->
+                        merged.stream().map(command -> orderService.createOrder(command.userId(), command.sessionIds())).toList());
+                for (int i = 0; i < merged.size(); i++) {
+                    merged.get(i).future().complete(orders.get(i));
+                }
+            } catch (Exception e) {
+                logger.debug("批量预订提交失败，逐个重试 {} 个命令: {}", merged.size(), e.getMessage());
+                remaining.addAll(0, merged);
+            }
+        } else {
+            remaining.addAll(0, merged);
+        }
+        for (BookingCommand command : remaining) {
+            try {
+                Order order = transactionTemplate.execute(status -> orderService.createOrder(command.userId(), command.sessionIds()));
+                command.future().complete(order);
+            } catch (Exception e) {
+                command.future().completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * 队列内预检：一次查询批内全部场次，场次不存在、已预订、未开放、已开始或与同批更早的命令重复的命令
+     * 移到conflicts中单独执行（由下单逻辑返回具体错误），其余命令返回用于合并提交
+     */
+    private List<BookingCommand> excludeConflicts(List<BookingCommand> batch, List<BookingCommand> conflicts) {
+        Set<Long> allIds = new HashSet<>();
+        batch.forEach(command -> allIds.addAll(command.sessionIds()));
+        Map<Long, Session> sessions = sessionService.getSessionsByIds(allIds).stream()
+                .collect(Collectors.toMap(Session::getId, Function.identity()));
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> taken = new HashSet<>();
+        List<BookingCommand> accepted = new ArrayList<>();
+        for (BookingCommand command : batch) {
+            boolean available = new HashSet<>(command.sessionIds()).size() == command.sessionIds().size();
+            for (Long id : command.sessionIds()) {
+                Session session = sessions.get(id);
+                if (session == null || session.getIsBooked() || !session.getIsActive()
+                        || !session.getStartTime().isAfter(now) || taken.contains(id)) {
+                    available = false;
+                    break;
+                }
+            }
+            if (available) {
+                taken.addAll(command.sessionIds());
+                accepted.add(command);
+            } else {
+                conflicts.add(command);
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * 等待超时时预订的结果未知：命令已开始处理，订单可能已经创建
+     */
+    public static class OutcomeUnknownException extends RuntimeException {
+        public OutcomeUnknownException() {
+            super("预订仍在处理中，请稍后在订单列表中确认结果");
+        }
+    }
+
+    /**
+     * 预订命令：开始处理与等待超时取消互斥，只有一方成功
+     */
+    private static final class BookingCommand {
+        private static final int PENDING = 0;
+        private static final int STARTED = 1;
+        private static final int CANCELLED = 2;
+
+        private final Long userId;
+        private final List<Long> sessionIds;
+        private final CompletableFuture<Order> future = new CompletableFuture<>();
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        BookingCommand(Long userId, List<Long> sessionIds) {
+            this.userId = userId;
+            this.sessionIds = sessionIds;
+        }
+
+        Long userId() {
+            return userId;
+        }
+
+        List<Long> sessionIds() {
+            return sessionIds;
+        }
+
+        CompletableFuture<Order> future() {
+            return future;
+        }
+
+        boolean start() {
+            return state.compareAndSet(PENDING, STARTED);
+        }
+
+        boolean cancel() {
+            return state.compareAndSet(PENDING, CANCELLED);
+        }
+
+        void run(OrderService orderService) {
+            try {
+                future.complete(orderService.createOrder(userId, sessionIds));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * 单个场地的队列和写线程
+     */
+    private final class Lane implements Runnable {
+        private final String courtName;
+        private final BlockingQueue<BookingCommand> queue = new ArrayBlockingQueue<>(ringSize);
+        private final ReentrantLock lock;
+        private final Thread writer;
+        private boolean closed; // 由Lane对象锁保护，关闭后不再接受命令
+
+        Lane(String courtName) {
+            this.courtName = courtName;
+            lock = courtLock(courtName);
+            writer = new Thread(this, "booking-sequencer-" + courtName);
+            writer.setDaemon(true);
+            writer.start();
+        }
+
+        @Override
+        public void run() {
+            List<BookingCommand> batch = new ArrayList<>(batchSize);
+            while (running) {
+                try {
+                    BookingCommand first = queue.poll(idleTimeoutMs, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        if (retireIfIdle()) {
+                            return;
+                        }
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    lock.lockInterruptibly();
+                    try {
+                        process(batch);
+                    } finally {
+                        lock.unlock();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (Exception e) {
+                    logger.error("预订队列处理异常: {}", e.getMessage(), e);
+                    batch.forEach(command -> command.future().completeExceptionally(e));
+                } finally {
+                    batch.clear();
+                }
+            }
+            queue.forEach(command -> command.future().completeExceptionally(new RuntimeException("服务正在关闭")));
+        }
+
+        /**
+         * 队列仍为空时关闭并从场地表中移除，写线程随后退出
+         */
+        private synchronized boolean retireIfIdle() {
+            if (!queue.isEmpty()) {
+                return false;
+            }
+            closed = true;
+            lanes.remove(courtName, this);
+            return true;
+        }
+    }
+}
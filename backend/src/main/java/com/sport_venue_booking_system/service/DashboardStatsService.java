@@ -0,0 +1,146 @@
+package com.sport_venue_booking_system.service;
+
+import com.sport_venue_booking_system.entity.Order;
+import com.sport_venue_booking_system.repository.OrderRepository;
+import com.sport_venue_booking_system.repository.UserRepository;
+import com.sport_venue_booking_system.utils.TransactionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 管理端统计计数
+ * 订单总数、用户总数、今日订单数和待核验订单数保存在内存计数器中，启动时从数据库加载一次，
+ * 之后由下单、核验、退订和注册在事务提交后增量更新，读取时不再查询数据库。
+ * 计数器定期与数据库对账，修正多实例部署或直接修改数据库造成的偏差。
+ */
+@Service
+public class DashboardStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardStatsService.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final LongAdder totalOrders = new LongAdder();
+    private final LongAdder totalUsers = new LongAdder();
+    private final LongAdder pendingOrders = new LongAdder();
+    private final AtomicReference<DayCounter> todayOrders = new AtomicReference<>(new DayCounter(LocalDate.now()));
+
+    private volatile boolean seeded;
+
+    /**
+     * 定期与数据库对账，启动初始化时执行第一次以加载初始计数
+     */
+    @Scheduled(fixedDelayString = "${dashboard.reconcile-interval-ms:300000}",
+            initialDelayString = "${dashboard.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        LocalDate today = LocalDate.now();
+        long drift = adjust(totalOrders, orderRepository.count())
+                + adjust(totalUsers, userRepository.count())
+                + adjust(pendingOrders, orderRepository.countByStatus(Order.OrderStatus.pending))
+                + adjust(currentDay(today).count,
+                        orderRepository.countByCreateTimeBetween(today.atStartOfDay(), today.atTime(LocalTime.MAX)));
+        if (seeded && drift != 0) {
+            logger.info("统计计数与数据库对账，修正偏差 {}", drift);
+        }
+        seeded = true;
+    }
+
+    public long getTotalOrders() {
+        ensureSeeded();
+        return totalOrders.sum();
+    }
+
+    public long getTotalUsers() {
+        ensureSeeded();
+        return totalUsers.sum();
+    }
+
+    public long getTodayOrders() {
+        ensureSeeded();
+        return currentDay(LocalDate.now()).count.sum();
+    }
+
+    public long getPendingOrders() {
+        ensureSeeded();
+        return pendingOrders.sum();
+    }
+
+    /**
+     * 新订单（待核验），事务提交后计数
+     */
+    public void recordOrderCreated(LocalDateTime createTime) {
+        TransactionUtils.afterCommit(() -> {
+            totalOrders.increment();
+            pendingOrders.increment();
+            LocalDate day = createTime.toLocalDate();
+            DayCounter counter = currentDay(LocalDate.now());
+            if (counter.day.equals(day)) {
+                counter.count.increment();
+            }
+        });
+    }
+
+    /**
+     * 待核验订单被核验或退订，事务提交后计数
+     */
+    public void recordOrderClosed() {
+        TransactionUtils.afterCommit(pendingOrders::decrement);
+    }
+
+    /**
+     * 新用户注册，事务提交后计数
+     */
+    public void recordUserRegistered() {
+        TransactionUtils.afterCommit(totalUsers::increment);
+    }
+
+    private void ensureSeeded() {
+        if (!seeded) {
+            reconcile();
+        }
+    }
+
+    /**
+     * 当前日期的计数器，跨天时切换为新的计数器
+     */
+    private DayCounter currentDay(LocalDate today) {
+        while (true) {
+            DayCounter counter = todayOrders.get();
+            if (!counter.day.isBefore(today)) {
+                return counter;
+            }
+            DayCounter next = new DayCounter(today);
+            if (todayOrders.compareAndSet(counter, next)) {
+                return next;
+            }
+        }
+    }
+
+    private long adjust(LongAdder counter, long actual) {
+        long drift = actual - counter.sum();
+        counter.add(drift);
+        return Math.abs(drift);
+    }
+
+    private static final class DayCounter {
+        private final LocalDate day;
+        private final LongAdder count = new LongAdder();
+
+        DayCounter(LocalDate day) {
+            this.day = day;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.sport_venue_booking_system.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sport_venue_booking_system.dto.ApiResponse;
+import com.sport_venue_booking_system.entity.IdempotencyRecord;
+import com.sport_venue_booking_system.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+/**
+ * 幂等键重复请求抑制
+ * 同一用户使用相同的 Idempotency-Key 重复提交时直接返回首次的成功响应，不再执行业务逻辑；
+ * 并发的重复请求等待首次请求完成。失败的响应不缓存，客户端可以用相同的键重试。
+ * 每个键记录请求内容的摘要，相同的键用于不同的请求内容时拒绝（422）。
+ * 本地缓存有容量上限并按时间过期。开启 idempotency.db-enabled 后，执行前先插入处理中的记录，
+ * 由主键保证多实例间只有一个请求执行，其他实例在首次请求完成前返回409，完成后返回保存的响应。
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${idempotency.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${idempotency.db-enabled:false}")
+    private boolean dbEnabled;
+
+    private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 以幂等方式执行请求
+     *
+     * @param scope   幂等键的作用域（用户名）
+     * @param key     客户端提供的幂等键
+     * @param request 请求内容，相同的键只能用于相同的请求内容
+     * @param action  实际执行的请求
+     * @throws KeyReusedException 相同的键已用于不同的请求内容
+     * @throws InProgressException 其他实例正在处理相同的键
+     */
+    public <T> ApiResponse<T> execute(String scope, String key, String request, Supplier<ApiResponse<T>> action) {
+        String recordKey = scope + ":" + key;
+        String requestHash = hash(request);
+        LocalDateTime now = LocalDateTime.now();
+
+        CacheEntry existing = cache.get(recordKey);
+        if (existing != null && existing.isExpired(now, ttlSeconds)) {
+            cache.remove(recordKey, existing);
+            existing = null;
+        }
+        if (existing != null) {
+            logger.debug("幂等键重复请求，返回首次响应: {}", recordKey);
+            return awaitFirst(existing, requestHash);
+        }
+
+        CacheEntry entry = new CacheEntry(new CompletableFuture<>(), requestHash, now);
+        CacheEntry winner = cache.putIfAbsent(recordKey, entry);
+        if (winner != null) {
+            return awaitFirst(winner, requestHash);
+        }
+        insertionOrder.add(recordKey);
+        evictOverflow();
+
+        ApiResponse<T> response;
+        try {
+            if (dbEnabled) {
+                ApiResponse<T> stored = claimInDatabase(recordKey, requestHash, now);
+                if (stored != null) {
+                    entry.response().complete(stored);
+                    return stored;
+                }
+            }
+            response = action.get();
+        } catch (RuntimeException e) {
+            cache.remove(recordKey, entry);
+            if (dbEnabled && !(e instanceof IdempotencyConflictException)) {
+                releaseInDatabase(recordKey);
+            }
+            entry.response().completeExceptionally(e);
+            throw e;
+        }
+
+        if (response == null || !response.isSuccess()) {
+            // 失败响应不缓存，等待中的重复请求也拿到同样的失败结果
+            cache.remove(recordKey, entry);
+            if (dbEnabled) {
+                releaseInDatabase(recordKey);
+            }
+        } else if (dbEnabled) {
+            saveToDatabase(recordKey, response);
+        }
+        entry.response().complete(response);
+        return response;
+    }
+
+    /**
+     * 定期清理过期的幂等记录
+     */
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval-ms:60000}")
+    @Transactional
+    public void cleanup() {
+        LocalDateTime now = LocalDateTime.now();
+        cache.entrySet().removeIf(e -> e.getValue().isExpired(now, ttlSeconds));
+        insertionOrder.removeIf(key -> !cache.containsKey(key));
+        if (dbEnabled) {
+            int deleted = idempotencyRecordRepository.deleteExpired(now.minusSeconds(ttlSeconds));
+            if (deleted > 0) {
+                logger.debug("清理过期幂等记录 {} 条", deleted);
+            }
+        }
+    }
+
+    private void evictOverflow() {
+        while (cache.size() > maxEntries) {
+            String oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            cache.remove(oldest);
+        }
+    }
+
+    /**
+     * 等待首次请求的响应，请求内容不同时拒绝
+     */
+    @SuppressWarnings("unchecked")
+    private <T> ApiResponse<T> awaitFirst(CacheEntry first, String requestHash) {
+        if (!first.requestHash().equals(requestHash)) {
+            throw new KeyReusedException();
+        }
+        try {
+            return (ApiResponse<T>) first.response().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * 插入处理中的记录占用幂等键
+     *
+     * @return 占用成功时返回null，由本次请求执行；键已完成时返回首次的响应
+     */
+    @SuppressWarnings("unchecked")
+    private <T> ApiResponse<T> claimInDatabase(String recordKey, String requestHash, LocalDateTime now) {
+        IdempotencyRecord record;
+        try {
+            if (insertPending(recordKey, requestHash, now)) {
+                return null;
+            }
+            record = idempotencyRecordRepository.findById(recordKey).orElse(null);
+            if (record == null || record.getCreateTime().plusSeconds(ttlSeconds).isBefore(now)) {
+                // 记录已过期，删除后重新占用
+                idempotencyRecordRepository.deleteExpiredKey(recordKey, now.minusSeconds(ttlSeconds));
+                if (insertPending(recordKey, requestHash, now)) {
+                    return null;
+                }
+                throw new InProgressException();
+            }
+        } catch (IdempotencyConflictException e) {
+            throw e;
+        } catch (Exception e) {
+            // 数据库不可用时退化为只在本实例内去重
+            logger.warn("占用幂等记录失败: {}", e.getMessage());
+            return null;
+        }
+
+        if (record.getRequestHash() != null && !record.getRequestHash().equals(requestHash)) {
+            throw new KeyReusedException();
+        }
+        if (record.getResponseBody() == null) {
+            throw new InProgressException();
+        }
+        try {
+            return objectMapper.readValue(record.getResponseBody(), ApiResponse.class);
+        } catch (Exception e) {
+            logger.warn("读取幂等记录失败: {}", e.getMessage());
+            throw new InProgressException();
+        }
+    }
+
+    /**
+     * 插入处理中的记录，由主键判断是否占用成功
+     *
+     * @return 插入成功时为true，键已存在时为false
+     */
+    private boolean insertPending(String recordKey, String requestHash, LocalDateTime now) {
+        try {
+            idempotencyRecordRepository.insertPending(recordKey, requestHash, now);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private void saveToDatabase(String recordKey, ApiResponse<?> response) {
+        try {
+            idempotencyRecordRepository.complete(recordKey, objectMapper.writeValueAsString(response));
+        } catch (Exception e) {
+            logger.warn("保存幂等记录失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 请求失败时删除处理中的记录，客户端可以用相同的键重试
+     */
+    private void releaseInDatabase(String recordKey) {
+        try {
+            idempotencyRecordRepository.deletePending(recordKey);
+        } catch (Exception e) {
+            // 删除失败时记录到期后清理
+            logger.warn("删除幂等记录失败: {}", e.getMessage());
+        }
+    }
+
+    private static String hash(String request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(String.valueOf(request).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record CacheEntry(CompletableFuture<ApiResponse<?>> response, String requestHash, LocalDateTime createTime) {
+
+        boolean isExpired(LocalDateTime now, long ttlSeconds) {
+            return createTime.plusSeconds(ttlSeconds).isBefore(now);
+        }
+    }
+
+    /**
+     * 幂等键冲突
+     */
+    public abstract static class IdempotencyConflictException extends RuntimeException {
+        protected IdempotencyConflictException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * 相同的幂等键已用于不同的请求内容
+     */
+    public static class KeyReusedException extends IdempotencyConflictException {
+        public KeyReusedException() {
+            super("Idempotency-Key已用于其他请求，请使用新的键");
+        }
+    }
+
+    /**
+     * 相同幂等键的首次请求仍在处理中
+     */
+    public static class InProgressException extends IdempotencyConflictException {
+        public InProgressException() {
+            super("相同的请求正在处理中，请稍后重试");
+        }
+    }
+}
\ No newline at end of file
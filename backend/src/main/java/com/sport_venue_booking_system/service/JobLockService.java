@@ -0,0 +1,230 @@
+package com.sport_venue_booking_system.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 基于数据库租约的任务锁（job_lock表）
+ * 多实例部署时同一任务只由取得租约的实例执行，其他实例一次条件更新后直接跳过。
+ * 租约到期时间使用数据库时钟，实例宕机后租约到期即可被其他实例接管；
+ * 每次取得租约时递增fencing_token，任务可在关键步骤前确认租约仍属于自己。
+ * 按计划时间执行的任务可以指定执行标识（如触发日期），成功后记录在last_run_key中，
+ * 时钟偏差的实例在租约释放后再次触发同一次任务时直接跳过。
+ */
+@Service
+public class JobLockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobLockService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${job-lock.enabled:true}")
+    private boolean enabled;
+
+    @Value("${job-lock.lease-seconds:600}")
+    private long leaseSeconds;
+
+    private final TransactionTemplate requiresNew;
+    private final String holderId;
+    private final Map<String, JobStats> stats = new ConcurrentHashMap<>();
+
+    public JobLockService(PlatformTransactionManager transactionManager) {
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.holderId = resolveHostName() + ":" + ManagementFactory.getRuntimeMXBean().getPid() + ":"
+                + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * 取得租约后执行任务，未取得租约时跳过
+     *
+     * @return 是否执行了任务
+     */
+    public boolean runExclusive(String jobName, Consumer<Lease> job) {
+        return runExclusive(jobName, null, job);
+    }
+
+    /**
+     * 取得租约后执行任务，未取得租约或该执行标识已成功执行过时跳过
+     *
+     * job-lock.enabled为false时所有任务都跳过
+     *
+     * @param runKey 本次执行的标识（如计划触发日期），为null时不检查
+     * @return 是否执行了任务
+     */
+    public boolean runExclusive(String jobName, String runKey, Consumer<Lease> job) {
+        JobStats jobStats = stats.computeIfAbsent(jobName, name -> new JobStats());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        if (!enabled) {
+            jobStats.skipped.incrementAndGet();
+            logger.debug("job-lock.enabled为false，任务 {} 跳过", jobName);
+            recordRun(sample, jobName, "disabled");
+            return false;
+        }
+        long acquireStart = System.nanoTime();
+        Lease lease = tryAcquire(jobName, runKey);
+        jobStats.acquireNanos.addAndGet(System.nanoTime() - acquireStart);
+        if (lease == null) {
+            jobStats.skipped.incrementAndGet();
+            logger.debug("任务 {} 的租约由其他实例持有或本次已执行（{}），本实例跳过", jobName, runKey);
+            recordRun(sample, jobName, "skipped");
+            return false;
+        }
+
+        jobStats.acquired.incrementAndGet();
+        jobStats.lastFencingToken = lease.fencingToken();
+        long holdStart = System.currentTimeMillis();
+        String outcome = "failed";
+        try {
+            job.accept(lease);
+            outcome = "success";
+            return true;
+        } finally {
+            long heldMillis = System.currentTimeMillis() - holdStart;
+            jobStats.lastHoldMillis = heldMillis;
+            jobStats.lastRunAt = LocalDateTime.now();
+            release(lease, "success".equals(outcome) ? runKey : null);
+            recordRun(sample, jobName, outcome);
+            logger.info("任务 {} 执行完成，租约令牌 {}，持有 {} ms", jobName, lease.fencingToken(), heldMillis);
+        }
+    }
+
+    /**
+     * 确认租约仍属于本实例（未过期且未被其他实例接管）
+     */
+    public boolean isHeld(Lease lease) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM job_lock WHERE name = ? AND holder = ? AND fencing_token = ? AND lease_until > NOW(3)",
+                Integer.class, lease.jobName(), holderId, lease.fencingToken());
+        return count != null && count > 0;
+    }
+
+    /**
+     * 任务最近一次成功执行的标识，没有记录时返回null
+     */
+    public String lastRunKey(String jobName) {
+        if (!enabled) {
+            return null;
+        }
+        List<String> keys = jdbcTemplate.queryForList("SELECT last_run_key FROM job_lock WHERE name = ?",
+                String.class, jobName);
+        return keys.isEmpty() ? null : keys.get(0);
+    }
+
+    /**
+     * 任务锁统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("holder", holderId);
+        stats.forEach((jobName, jobStats) -> {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("acquired", jobStats.acquired.get());
+            item.put("skipped", jobStats.skipped.get());
+            long attempts = jobStats.acquired.get() + jobStats.skipped.get();
+            item.put("avgAcquireMs", attempts == 0 ? 0.0 : jobStats.acquireNanos.get() / 1_000_000.0 / attempts);
+            item.put("lastHoldMs", jobStats.lastHoldMillis);
+            item.put("lastFencingToken", jobStats.lastFencingToken);
+            item.put("lastRunAt", jobStats.lastRunAt);
+            result.put(jobName, item);
+        });
+        return result;
+    }
+
+    /**
+     * 任务执行耗时指标 jobs.exclusive，含取得租约的时间
+     */
+    private void recordRun(Timer.Sample sample, String jobName, String outcome) {
+        sample.stop(Timer.builder("jobs.exclusive")
+                .description("需要任务锁的定时任务耗时")
+                .tag("job", jobName)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private Lease tryAcquire(String jobName, String runKey) {
+        try {
+            return requiresNew.execute(status -> {
+                jdbcTemplate.update("INSERT INTO job_lock (name, holder, lease_until, fencing_token) " +
+                        "VALUES (?, NULL, '1970-01-01 00:00:01', 0) ON DUPLICATE KEY UPDATE name = name", jobName);
+                int updated = jdbcTemplate.update("UPDATE job_lock SET holder = ?, " +
+                        "lease_until = NOW(3) + INTERVAL ? SECOND, fencing_token = fencing_token + 1, acquired_at = NOW(3) " +
+                        "WHERE name = ? AND (lease_until <= NOW(3) OR holder = ?) " +
+                        "AND (? IS NULL OR last_run_key IS NULL OR last_run_key <> ?)",
+                        holderId, leaseSeconds, jobName, holderId, runKey, runKey);
+                if (updated == 0) {
+                    return null;
+                }
+                Long token = jdbcTemplate.queryForObject("SELECT fencing_token FROM job_lock WHERE name = ?",
+                        Long.class, jobName);
+                return new Lease(jobName, token != null ? token : 0);
+            });
+        } catch (Exception e) {
+            logger.error("获取任务 {} 的租约失败: {}", jobName, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * 释放租约，completedRunKey不为null时记录为已执行
+     */
+    private void release(Lease lease, String completedRunKey) {
+        try {
+            requiresNew.executeWithoutResult(status -> jdbcTemplate.update(
+                    "UPDATE job_lock SET holder = NULL, lease_until = NOW(3), " +
+                    "last_run_key = COALESCE(?, last_run_key) " +
+                    "WHERE name = ? AND holder = ? AND fencing_token = ?",
+                    completedRunKey, lease.jobName(), holderId, lease.fencingToken()));
+        } catch (Exception e) {
+            // 释放失败时租约到期后自动失效
+            logger.warn("释放任务 {} 的租约失败: {}", lease.jobName(), e.getMessage());
+        }
+    }
+
+    private static String resolveHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+
+    /**
+     * 任务租约
+     */
+    public record Lease(String jobName, long fencingToken) {
+    }
+
+    private static final class JobStats {
+        private final AtomicLong acquired = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong acquireNanos = new AtomicLong();
+        private volatile long lastHoldMillis;
+        private volatile long lastFencingToken;
+        private volatile LocalDateTime lastRunAt;
+    }
+}
\ No newline at end of file
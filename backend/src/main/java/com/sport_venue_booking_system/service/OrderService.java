@@ -1,6 +1,8 @@
 package com.sport_venue_booking_system.service;
 
+import com.sport_venue_booking_system.dto.CursorPage;
 import com.sport_venue_booking_system.dto.OrderVerificationResponse;
+import com.sport_venue_booking_system.dto.SlotHold;
 import com.sport_venue_booking_system.entity.Order;
 import org.springframework.data.domain.Page;
 
@@ -20,6 +22,15 @@ public interface OrderService {
     Page<OrderVerificationResponse> getUserOrders(Long userId, int page, int size);
     boolean cancelUserOrder(Long orderId, Long userId);
     
+    // 游标分页查询订单（cursor为空时从最新的订单开始）
+    CursorPage<OrderVerificationResponse> getUserOrderFeed(Long userId, String cursor, int size, boolean withTotal);
+    CursorPage<OrderVerificationResponse> getOrderFeed(String cursor, int size, boolean withTotal);
+    
     // 创建订单方法
     Order createOrder(Long userId, List<Long> sessionIds);
+    
+    // 场次预留方法（先预留，限时内确认后生成订单）
+    SlotHold holdSessions(Long userId, List<Long> sessionIds);
+    Order confirmHold(Long userId, String holdId);
+    void cancelHold(Long userId, String holdId);
 } 
\ No newline at end of file
@@ -0,0 +1,219 @@
+package com.sport_venue_booking_system.service;
+
+import com.sport_venue_booking_system.repository.UserRepository;
+import com.sport_venue_booking_system.utils.LatencyRecorder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 密码哈希
+ * BCrypt计算在专用的有界线程池中执行，不占用请求线程；等待队列已满时立即拒绝（返回429），
+ * 避免集中登录时请求线程全部阻塞在哈希计算上导致其他接口无响应。
+ * 哈希强度由 password-hash.strength 指定（默认10，为0时按 password-hash.target-ms 在启动时校准），
+ * 登录时发现密码哈希的强度低于当前强度，在后台重新计算并保存；
+ * 重新哈希在单独的低优先级线程中执行，不占用登录的线程池和等待队列。
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+    private static final int MIN_STRENGTH = 8;
+    private static final int MAX_STRENGTH = 16;
+    private static final int REHASH_QUEUE_CAPACITY = 16;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${password-hash.threads:0}")
+    private int threads;
+
+    @Value("${password-hash.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${password-hash.timeout-ms:10000}")
+    private long timeoutMs;
+
+    @Value("${password-hash.strength:10}")
+    private int configuredStrength;
+
+    @Value("${password-hash.target-ms:100}")
+    private long targetMs;
+
+    private ThreadPoolExecutor executor;
+    private ThreadPoolExecutor rehashExecutor;
+    private BCryptPasswordEncoder encoder;
+    private int strength;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder rehashed = new LongAdder();
+    private final LatencyRecorder hashLatency = new LatencyRecorder(1024);
+    private final LatencyRecorder loginLatency = new LatencyRecorder(1024);
+
+    @PostConstruct
+    public void init() {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+                    Thread thread = new Thread(r, "password-hash-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        rehashExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(REHASH_QUEUE_CAPACITY), r -> {
+                    Thread thread = new Thread(r, "password-rehash");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        strength = configuredStrength > 0 ? configuredStrength : calibrate();
+        encoder = new BCryptPasswordEncoder(strength);
+        logger.info("密码哈希线程数 {}，等待队列 {}，BCrypt强度 {}", poolSize, queueCapacity, strength);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        rehashExecutor.shutdownNow();
+    }
+
+    public String encode(String rawPassword) {
+        return submit(() -> encoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return submit(() -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * 密码哈希的强度低于当前强度时需要重新计算（强度更高的哈希保持不变，避免各实例强度不同时反复重新哈希）
+     */
+    public boolean needsRehash(String encodedPassword) {
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return !matcher.find() || Integer.parseInt(matcher.group(1)) < strength;
+    }
+
+    /**
+     * 登录验证密码成功后，按当前强度在后台重新计算哈希并保存（密码期间被修改时不覆盖）
+     * 重新哈希队列已满或登录等待队列超过一半时跳过，下次登录再处理
+     */
+    public void rehashInBackground(Long userId, String rawPassword, String encodedPassword) {
+        if (executor.getQueue().size() * 2 > queueCapacity) {
+            return;
+        }
+        try {
+            rehashExecutor.execute(() -> {
+                try {
+                    String newHash = encoder.encode(rawPassword);
+                    if (userRepository.updatePasswordIfUnchanged(userId, encodedPassword, newHash) > 0) {
+                        rehashed.increment();
+                    }
+                } catch (Exception e) {
+                    logger.warn("用户 {} 的密码重新哈希失败: {}", userId, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 繁忙时跳过
+        }
+    }
+
+    /**
+     * 记录一次登录的总耗时（包括排队和哈希）
+     */
+    public void recordLogin(long nanos) {
+        loginLatency.record(nanos);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("strength", strength);
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("rejected", rejected.sum());
+        stats.put("rehashed", rehashed.sum());
+        stats.put("hash", hashLatency.snapshot());
+        stats.put("login", loginLatency.snapshot());
+        return stats;
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    hashLatency.record(System.nanoTime() - start);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new BusyException();
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new BusyException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("密码校验被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException runtimeException ? runtimeException : new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * 按目标耗时选择BCrypt强度：强度每加1耗时翻倍，以强度10的实测耗时推算
+     */
+    private int calibrate() {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(10);
+        probe.encode("calibration");
+        long start = System.nanoTime();
+        int rounds = 3;
+        for (int i = 0; i < rounds; i++) {
+            probe.encode("calibration");
+        }
+        double millis = Math.max(0.1, (System.nanoTime() - start) / 1_000_000.0 / rounds);
+        int calibrated = 10 + (int) Math.round(Math.log(targetMs / millis) / Math.log(2));
+        calibrated = Math.min(Math.max(calibrated, MIN_STRENGTH), MAX_STRENGTH);
+        logger.info("BCrypt强度10耗时 {} ms，目标 {} ms，选择强度 {}", String.format("%.1f", millis), targetMs, calibrated);
+        return calibrated;
+    }
+
+    /**
+     * 密码哈希线程池繁忙
+     */
+    public static class BusyException extends RuntimeException {
+        public BusyException() {
+            super("当前登录人数较多，请稍后重试");
+        }
+    }
+}
\ No newline at end of file
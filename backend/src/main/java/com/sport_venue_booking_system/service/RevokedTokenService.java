@@ -0,0 +1,141 @@
+package com.sport_venue_booking_system.service;
+
+import com.sport_venue_booking_system.entity.RevokedToken;
+import com.sport_venue_booking_system.repository.RevokedTokenRepository;
+import com.sport_venue_booking_system.utils.CountingBloomFilter;
+import com.sport_venue_booking_system.utils.TransactionUtils;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 令牌撤销列表
+ * 撤销记录保存在 revoked_token 表中，内存中保存未过期的撤销记录，并用计数布隆过滤器记录其摘要：
+ * 过滤器判定不存在时直接放行，判定可能存在时查询内存中的记录确认，校验令牌时不访问数据库。
+ * 其他实例撤销的令牌定期增量加载；令牌本身过期后记录从表、内存和过滤器中删除。
+ */
+@Service
+public class RevokedTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevokedTokenService.class);
+    // 增量加载时向前重叠的时间，覆盖提交顺序与撤销时间不一致的记录
+    private static final long LOAD_OVERLAP_SECONDS = 60;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Value("${token-revocation.expected-entries:100000}")
+    private int expectedEntries;
+
+    @Value("${token-revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    private CountingBloomFilter filter;
+    // 已加载的撤销记录：摘要及令牌过期时间，用于确认过滤器的判定和过期后从过滤器中删除
+    private final Map<String, LocalDateTime> entries = new ConcurrentHashMap<>();
+    private volatile LocalDateTime lastLoadTime;
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder filterHits = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        filter = new CountingBloomFilter(expectedEntries, falsePositiveRate);
+        try {
+            loadRecent();
+        } catch (Exception e) {
+            logger.error("加载令牌撤销记录失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 令牌是否已撤销
+     *
+     * @param tokenHash 令牌的SHA-256摘要（JwtUtil.tokenHash）
+     */
+    public boolean isRevoked(String tokenHash) {
+        checks.increment();
+        if (!filter.mightContain(tokenHash)) {
+            return false;
+        }
+        filterHits.increment();
+        boolean revoked = entries.containsKey(tokenHash);
+        if (!revoked) {
+            falsePositives.increment();
+        }
+        return revoked;
+    }
+
+    /**
+     * 撤销令牌，到令牌本身的过期时间为止
+     * 同一令牌已撤销时插入语句不修改记录，并发撤销不会使事务回滚
+     */
+    public void revoke(String tokenHash, Long userId, LocalDateTime expiresAt) {
+        revokedTokenRepository.insertIgnoringDuplicate(tokenHash, userId, expiresAt, LocalDateTime.now());
+        TransactionUtils.afterCommit(() -> add(tokenHash, expiresAt));
+    }
+
+    /**
+     * 增量加载其他实例撤销的令牌
+     */
+    @Scheduled(fixedDelayString = "${token-revocation.refresh-interval-ms:5000}",
+            initialDelayString = "${token-revocation.refresh-interval-ms:5000}")
+    public synchronized void loadRecent() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = lastLoadTime != null
+                ? lastLoadTime.minusSeconds(LOAD_OVERLAP_SECONDS) : LocalDateTime.of(1970, 1, 1, 0, 0);
+        for (RevokedToken token : revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(since, now)) {
+            add(token.getTokenHash(), token.getExpiresAt());
+        }
+        lastLoadTime = now;
+    }
+
+    /**
+     * 删除令牌已过期的撤销记录，并从过滤器中移除
+     */
+    @Scheduled(fixedDelayString = "${token-revocation.prune-interval-ms:3600000}")
+    @Transactional
+    public void prune() {
+        LocalDateTime now = LocalDateTime.now();
+        int deleted = revokedTokenRepository.deleteExpired(now);
+        int removed = 0;
+        for (Map.Entry<String, LocalDateTime> entry : entries.entrySet()) {
+            if (entry.getValue().isBefore(now) && entries.remove(entry.getKey(), entry.getValue())) {
+                filter.remove(entry.getKey());
+                removed++;
+            }
+        }
+        if (deleted > 0 || removed > 0) {
+            logger.info("清除过期的令牌撤销记录 {} 条，过滤器移除 {} 条", deleted, removed);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("filterSize", filter.getSize());
+        stats.put("hashCount", filter.getHashCount());
+        stats.put("checks", checks.sum());
+        stats.put("filterHits", filterHits.sum());
+        stats.put("falsePositives", falsePositives.sum());
+        return stats;
+    }
+
+    private void add(String tokenHash, LocalDateTime expiresAt) {
+        if (entries.putIfAbsent(tokenHash, expiresAt) == null) {
+            filter.add(tokenHash);
+        }
+    }
+}
\ No newline at end of file
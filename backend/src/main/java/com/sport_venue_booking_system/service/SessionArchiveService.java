@@ -0,0 +1,169 @@
+package com.sport_venue_booking_system.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 过期场次归档
+ * 按ID区间分块把过期场次复制到 session_history 后从 session 删除，每块一个独立的短事务，
+ * 块之间暂停一段时间，避免一次性大范围删除长时间持有行锁、撑大undo日志。
+ * 归档可重复执行：已复制到历史表的场次再次归档时覆盖为最新状态。
+ */
+@Service
+public class SessionArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionArchiveService.class);
+
+    private static final String COPY_SQL =
+            "INSERT INTO session_history (id, court_name, start_time, price, is_active, is_booked, note, archive_time) " +
+            "SELECT id, court_name, start_time, price, is_active, is_booked, note, ? FROM session " +
+            "WHERE id >= ? AND id < ? AND start_time < ? " +
+            "ON DUPLICATE KEY UPDATE is_active = VALUES(is_active), is_booked = VALUES(is_booked), " +
+            "note = VALUES(note), archive_time = VALUES(archive_time)";
+    private static final String DELETE_SQL = "DELETE FROM session WHERE id >= ? AND id < ? AND start_time < ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${session-archive.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${session-archive.pause-ms:200}")
+    private long pauseMs;
+
+    private final TransactionTemplate chunkTransaction;
+
+    private final AtomicLong totalRows = new AtomicLong();
+    private final AtomicLong totalChunks = new AtomicLong();
+    private final AtomicLong totalLockWaitMs = new AtomicLong();
+    private final AtomicReference<Map<String, Object>> lastRun = new AtomicReference<>(Map.of());
+
+    public SessionArchiveService(PlatformTransactionManager transactionManager) {
+        // 每块独立提交，即使调用方处于事务中
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 归档开始时间早于cutoff的场次，返回归档的行数
+     */
+    public synchronized long archiveBefore(LocalDateTime cutoff) {
+        long startMillis = System.currentTimeMillis();
+        Timestamp cutoffTime = Timestamp.valueOf(cutoff);
+        Long low = nextExpiredId(0, cutoffTime);
+        if (low == null) {
+            recordRun(cutoff, 0, 0, 0, startMillis);
+            return 0;
+        }
+
+        long rows = 0;
+        long chunks = 0;
+        long lockWaitMs = 0;
+        while (low != null) {
+            long chunkLow = low;
+            long high = low + chunkSize;
+            long lockTimeBefore = readRowLockTime();
+            Integer deleted = chunkTransaction.execute(status -> {
+                Timestamp archiveTime = Timestamp.valueOf(LocalDateTime.now());
+                jdbcTemplate.update(COPY_SQL, archiveTime, chunkLow, high, cutoffTime);
+                return jdbcTemplate.update(DELETE_SQL, chunkLow, high, cutoffTime);
+            });
+            long lockTimeAfter = readRowLockTime();
+            if (lockTimeBefore >= 0 && lockTimeAfter >= lockTimeBefore) {
+                lockWaitMs += lockTimeAfter - lockTimeBefore;
+            }
+            rows += deleted != null ? deleted : 0;
+            chunks++;
+
+            // 跳过没有过期场次的ID区间
+            low = nextExpiredId(high, cutoffTime);
+            if (low != null && !pause()) {
+                break;
+            }
+        }
+
+        totalRows.addAndGet(rows);
+        totalChunks.addAndGet(chunks);
+        totalLockWaitMs.addAndGet(lockWaitMs);
+        recordRun(cutoff, rows, chunks, lockWaitMs, startMillis);
+        logger.info("归档早于 {} 的过期场次 {} 个，分 {} 块，行锁等待 {} ms，用时 {} ms", cutoff, rows, chunks,
+                lockWaitMs, System.currentTimeMillis() - startMillis);
+        return rows;
+    }
+
+    /**
+     * 归档统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("totalRows", totalRows.get());
+        stats.put("totalChunks", totalChunks.get());
+        stats.put("totalLockWaitMs", totalLockWaitMs.get());
+        stats.put("chunkSize", chunkSize);
+        stats.put("pauseMs", pauseMs);
+        stats.put("lastRun", lastRun.get());
+        return stats;
+    }
+
+    private void recordRun(LocalDateTime cutoff, long rows, long chunks, long lockWaitMs, long startMillis) {
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("cutoff", cutoff);
+        run.put("rows", rows);
+        run.put("chunks", chunks);
+        run.put("lockWaitMs", lockWaitMs);
+        run.put("durationMs", System.currentTimeMillis() - startMillis);
+        run.put("finishedAt", LocalDateTime.now());
+        lastRun.set(run);
+    }
+
+    private Long nextExpiredId(long fromId, Timestamp cutoffTime) {
+        return jdbcTemplate.queryForObject("SELECT MIN(id) FROM session WHERE id >= ? AND start_time < ?",
+                Long.class, fromId, cutoffTime);
+    }
+
+    /**
+     * InnoDB累计行锁等待时间（毫秒，全库统计，归档期间的增量包含其他连接的等待）
+     * 无法读取时返回-1
+     */
+    private long readRowLockTime() {
+        try {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList("SHOW GLOBAL STATUS LIKE 'Innodb_row_lock_time'");
+            if (rows.isEmpty()) {
+                return -1;
+            }
+            Object value = rows.get(0).get("Value");
+            return value != null ? Long.parseLong(value.toString()) : -1;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private boolean pause() {
+        if (pauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("场次归档被中断，剩余部分在下次归档时处理");
+            return false;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.sport_venue_booking_system.service;
+
+import com.sport_venue_booking_system.dto.SlotChange;
+import com.sport_venue_booking_system.dto.SyncDelta;
+import com.sport_venue_booking_system.event.SessionChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * 场次变化日志（增量同步）
+ * 每次提交的场次变化分配一个递增的版本号，记录在固定容量的环形日志中，
+ * 客户端用上次得到的版本号查询之后的变化；请求的版本已被日志覆盖时要求客户端全量重新获取。
+ * 日志只包含本实例提交的变化，版本号从 sync_version 表分配，所有实例共用一个序列：
+ * 分配时跳过了版本号、或查询时序列已超过本实例的最新版本，说明其他实例提交了日志中没有的变化，
+ * 此时清空日志，之前的版本都要求全量同步。
+ * 提交的线程只把变化放入队列，由单独的后台线程分配版本号并写入日志，同一批取出的变化共用一个版本号：
+ * 提交路径上不加锁，也不在事务仍持有连接时再占用一个连接更新 sync_version。
+ * 每次初始化日志生成新的纪元（epoch），客户端需同时提交版本号和纪元，
+ * 重启后或来自其他实例的版本号因纪元不一致要求全量同步。
+ */
+@Service
+public class SessionChangeLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionChangeLog.class);
+    private static final String SEQUENCE_NAME = "session";
+    private static final int PENDING_CAPACITY = 10000;
+    private static final int MAX_BATCH = 256;
+
+    @Autowired
+    private SyncVersionService syncVersionService;
+
+    @Value("${session-sync.log-size:10000}")
+    private int logSize;
+
+    private final BlockingQueue<List<SlotChange>> pending = new LinkedBlockingQueue<>(PENDING_CAPACITY);
+    private volatile boolean overflowed;
+    private Thread appender;
+
+    private long[] versions;
+    private SlotChange[] changes;
+    private int head;
+    private int size;
+
+    private boolean initialized;
+    private String epoch;      // 日志纪元，每次初始化重新生成
+    private long current;      // 已知的最新版本号
+    private long floor;        // 日志包含版本号大于floor的全部变化
+
+    @PostConstruct
+    public void start() {
+        appender = new Thread(this::appendLoop, "session-change-log");
+        appender.setDaemon(true);
+        appender.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        appender.interrupt();
+    }
+
+    /**
+     * 场次变化提交后放入队列，由后台线程写入日志
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSessionChanged(SessionChangedEvent event) {
+        if (event.getChanges().isEmpty()) {
+            return;
+        }
+        if (!pending.offer(event.getChanges())) {
+            // 后台线程跟不上时丢弃日志，重新初始化后所有客户端都会被要求全量同步
+            logger.warn("场次变化队列已满，变化日志将重置");
+            overflowed = true;
+        }
+    }
+
+    private void appendLoop() {
+        List<List<SlotChange>> batch = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(pending.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            pending.drainTo(batch, MAX_BATCH - 1);
+            try {
+                appendBatch(batch);
+            } catch (Exception e) {
+                // 无法分配版本号时丢弃日志，重新初始化后所有客户端都会被要求全量同步
+                logger.error("记录场次变化失败，变化日志将重置: {}", e.getMessage(), e);
+                synchronized (this) {
+                    initialized = false;
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * 为一批变化分配一个版本号并写入日志（只在后台线程中调用）
+     */
+    private void appendBatch(List<List<SlotChange>> batch) {
+        long version = syncVersionService.reserve(SEQUENCE_NAME, 1);
+        synchronized (this) {
+            if (overflowed) {
+                overflowed = false;
+                initialized = false;
+            }
+            ensureInitialized();
+            if (version <= current) {
+                // 查询时序列已超过本版本，日志已清空，全量同步得到的场次已包含这批变化
+                return;
+            }
+            if (version != current + 1) {
+                // 中间的版本号由其他实例分配，对应的变化不在日志中
+                discardLog(version - 1);
+            }
+            current = version;
+            for (List<SlotChange> changes : batch) {
+                for (SlotChange change : changes) {
+                    append(version, change);
+                }
+            }
+        }
+    }
+
+    /**
+     * 查询指定版本之后的变化
+     *
+     * @param since 客户端已同步的版本号，为null时只返回当前版本号并要求全量同步
+     * @param epoch 客户端得到since时的日志纪元，与当前纪元不一致时要求全量同步
+     * @param limit 单次最多返回的变化数（同一版本的变化总是一起返回）
+     */
+    public SyncDelta changesSince(Long since, String epoch, int limit) {
+        // 在锁外读取共享序列，轮询请求之间不因数据库查询互相等待
+        long latest = syncVersionService.current(SEQUENCE_NAME);
+        synchronized (this) {
+            ensureInitialized();
+            if (latest > current) {
+                discardLog(latest);
+            }
+            if (since == null || !this.epoch.equals(epoch) || since < floor || since > current) {
+                return new SyncDelta(current, this.epoch, true, false, List.of());
+            }
+            return collectSince(since, limit);
+        }
+    }
+
+    private SyncDelta collectSince(long since, int limit) {
+
+        // 二分查找第一个版本号大于since的记录
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (versionAt(mid) <= since) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        Map<SlotKey, SlotChange> merged = new LinkedHashMap<>();
+        long version = since;
+        int index = low;
+        while (index < size) {
+            long entryVersion = versionAt(index);
+            if (merged.size() >= limit && entryVersion != version) {
+                break;
+            }
+            SlotChange change = changeAt(index);
+            SlotKey key = new SlotKey(change.getCourtName(), change.getStartTime());
+            merged.remove(key);
+            merged.put(key, change);
+            version = entryVersion;
+            index++;
+        }
+        boolean hasMore = index < size;
+        return new SyncDelta(hasMore ? version : current, epoch, false, hasMore, new ArrayList<>(merged.values()));
+    }
+
+    private void ensureInitialized() {
+        if (initialized) {
+            return;
+        }
+        epoch = UUID.randomUUID().toString().substring(0, 8);
+        versions = new long[logSize];
+        changes = new SlotChange[logSize];
+        discardLog(syncVersionService.current(SEQUENCE_NAME));
+        initialized = true;
+    }
+
+    /**
+     * 清空日志，版本号不大于latest的客户端都需要全量同步
+     */
+    private void discardLog(long latest) {
+        current = latest;
+        floor = latest;
+        head = 0;
+        size = 0;
+        Arrays.fill(changes, null);
+    }
+
+    private void append(long version, SlotChange change) {
+        int tail = (head + size) % logSize;
+        if (size == logSize) {
+            // 覆盖最早的记录，该版本的变化不再完整
+            floor = versions[head];
+            head = (head + 1) % logSize;
+        } else {
+            size++;
+        }
+        versions[tail] = version;
+        changes[tail] = change;
+    }
+
+    private long versionAt(int index) {
+        return versions[(head + index) % logSize];
+    }
+
+    private SlotChange changeAt(int index) {
+        return changes[(head + index) % logSize];
+    }
+
+    private record SlotKey(String courtName, LocalDateTime startTime) {
+    }
+}
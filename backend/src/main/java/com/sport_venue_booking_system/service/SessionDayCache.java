@@ -0,0 +1,155 @@
+package com.sport_venue_booking_system.service;
+
+import com.sport_venue_booking_system.dto.SessionDaySnapshot;
+import com.sport_venue_booking_system.entity.Session;
+import com.sport_venue_booking_system.event.SessionChangedEvent;
+import com.sport_venue_booking_system.repository.SessionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按日期缓存的场次列表
+ * 每个日期有一个版本号，场次变化的事务提交后递增版本号并移除该日期的缓存；
+ * 加载期间版本号发生变化的结果不写入缓存，避免缓存提交前读到的旧数据。
+ * 其他实例提交的变化不会通知本实例，缓存条目超过 session-cache.ttl-ms 后重新加载；
+ * ETag由实例标识和加载时取得的序号组成，每次加载取一个新序号，同一缓存条目的命中返回同一ETag；
+ * 条目失效或过期重新加载后ETag随之改变，不同实例的ETag互不相同，不会误返回304。
+ * 缓存按最近访问淘汰，条目数量不超过 session-cache.max-entries。
+ */
+@Service
+public class SessionDayCache {
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Value("${session-cache.max-entries:64}")
+    private int maxEntries;
+
+    @Value("${session-cache.ttl-ms:2000}")
+    private long ttlMillis;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final String instanceTag = Long.toHexString(ThreadLocalRandom.current().nextLong() >>> 16);
+    private final Map<LocalDate, Long> versions = new ConcurrentHashMap<>();
+    private volatile long baseVersion;
+
+    private final Map<DayKey, CachedDay> entries = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<DayKey, CachedDay> eldest) {
+                    return size() > maxEntries;
+                }
+            });
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * 获取指定日期的场次
+     *
+     * @param availableOnly 是否只返回可预订（未预订且开放）的场次
+     */
+    public SessionDaySnapshot get(LocalDate date, boolean availableOnly) {
+        DayKey key = new DayKey(date, availableOnly);
+        long now = System.currentTimeMillis();
+        CachedDay cached = entries.get(key);
+        if (cached != null && now - cached.loadedAt() < ttlMillis) {
+            hits.increment();
+            return cached.snapshot();
+        }
+        misses.increment();
+
+        long version = versionOf(date);
+        long loadVersion = sequence.incrementAndGet();
+        LocalDateTime start = date.atStartOfDay();
+        LocalDateTime end = date.plusDays(1).atStartOfDay();
+        List<Session> loaded = availableOnly
+                ? sessionRepository.findByStartTimeBetweenAndIsBookedFalseAndIsActiveTrueOrderByStartTime(start, end)
+                : sessionRepository.findByStartTimeBetweenOrderByStartTime(start, end);
+        List<Session> sessions = loaded.stream().map(SessionDayCache::copyOf).toList();
+        SessionDaySnapshot snapshot = new SessionDaySnapshot(date, etag(key, loadVersion), sessions);
+        if (versionOf(date) == version) {
+            entries.put(key, new CachedDay(snapshot, now));
+        }
+        return snapshot;
+    }
+
+    /**
+     * 场次变化提交后使对应日期的缓存失效
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSessionChanged(SessionChangedEvent event) {
+        for (LocalDate date : event.getAffectedDates()) {
+            versions.merge(date, sequence.incrementAndGet(), Math::max);
+            entries.remove(new DayKey(date, true));
+            entries.remove(new DayKey(date, false));
+            invalidations.increment();
+        }
+        LocalDate expiredBefore = event.getExpiredBefore();
+        if (expiredBefore != null) {
+            // 先提升基础版本，再移除过期日期的版本号，未记录版本号的日期随之得到新版本
+            baseVersion = sequence.incrementAndGet();
+            versions.keySet().removeIf(date -> date.isBefore(expiredBefore));
+            synchronized (entries) {
+                entries.keySet().removeIf(key -> key.date().isBefore(expiredBefore));
+            }
+            invalidations.increment();
+        }
+    }
+
+    /**
+     * 缓存命中统计
+     */
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlMs", ttlMillis);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+
+    private long versionOf(LocalDate date) {
+        Long version = versions.get(date);
+        return version != null ? version : baseVersion;
+    }
+
+    private String etag(DayKey key, long loadVersion) {
+        return "\"" + key.date() + "-" + instanceTag + "-" + Long.toHexString(loadVersion) + (key.availableOnly() ? "a" : "f") + "\"";
+    }
+
+    /**
+     * 复制为脱离持久化上下文的场次，缓存中的对象在线程间共享
+     */
+    private static Session copyOf(Session session) {
+        return new Session(session.getId(), session.getCourtName(), session.getStartTime(), session.getPrice(),
+                session.getIsActive(), session.getIsBooked(), session.getNote(), session.getHoldUntil());
+    }
+
+    private record DayKey(LocalDate date, boolean availableOnly) {
+    }
+
+    private record CachedDay(SessionDaySnapshot snapshot, long loadedAt) {
+    }
+}
@@ -0,0 +1,114 @@
+package com.sport_venue_booking_system.service;
+
+import com.sport_venue_booking_system.entity.SessionTemplate;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 可预订天数窗口内的场次生成
+ * 窗口为明天起的 booking_horizon_days 天（系统配置，1-30天）。
+ * 一次统计窗口内每天的场次数量，没有任何场次的日期（新进入窗口或停机期间错过的日期）视为缺少场次，
+ * 缺少的日期在有界线程池中并行生成，每天一个独立事务；生成依赖唯一键 uniq_court_time 去重，可重复执行。
+ */
+@Service
+public class SessionHorizonService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionHorizonService.class);
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionTemplateService sessionTemplateService;
+
+    @Autowired
+    private SystemConfigService systemConfigService;
+
+    @Value("${booking.horizon.parallelism:4}")
+    private int parallelism;
+
+    private ExecutorService generationExecutor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        generationExecutor = Executors.newFixedThreadPool(Math.max(1, parallelism), r -> {
+            Thread thread = new Thread(r, "session-horizon-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        generationExecutor.shutdownNow();
+    }
+
+    /**
+     * 可预订天数，读取系统配置 booking_horizon_days
+     */
+    public int getHorizonDays() {
+        return systemConfigService.getSnapshot().bookingHorizonDays();
+    }
+
+    /**
+     * 补齐窗口内缺少的场次，返回新生成的场次数
+     * 同一时间只执行一次，停机后恢复时一次补齐整个窗口
+     */
+    public synchronized int fillHorizon() {
+        List<SessionTemplate> templates = sessionTemplateService.getAllTemplates();
+        if (templates.isEmpty()) {
+            logger.warn("没有找到场次模板，无法生成场次");
+            return 0;
+        }
+        LocalDate from = LocalDate.now().plusDays(1);
+        LocalDate to = from.plusDays(getHorizonDays());
+        Map<LocalDate, Long> counts = sessionService.countSessionsByDate(from, to);
+        List<LocalDate> missingDays = new ArrayList<>();
+        for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+            // 只补齐完全没有场次的日期：管理员删除的单个场次不会在下一次补齐时被重新生成，
+            // 模板新增或修改由模板同步写入已生成的日期
+            if (counts.getOrDefault(day, 0L) == 0) {
+                missingDays.add(day);
+            }
+        }
+        if (missingDays.isEmpty()) {
+            logger.debug("可预订窗口 {} 至 {} 的场次已完整", from, to.minusDays(1));
+            return 0;
+        }
+
+        logger.info("开始生成可预订窗口内缺少的场次，共 {} 天: {}", missingDays.size(), missingDays);
+        long startMillis = System.currentTimeMillis();
+        List<CompletableFuture<Integer>> futures = missingDays.stream()
+                .map(day -> CompletableFuture.supplyAsync(() -> generateDay(day, templates), generationExecutor))
+                .toList();
+        int generated = futures.stream().mapToInt(CompletableFuture::join).sum();
+        logger.info("可预订窗口场次生成完成，新生成 {} 个场次，用时 {} ms", generated,
+                System.currentTimeMillis() - startMillis);
+        return generated;
+    }
+
+    private int generateDay(LocalDate day, List<SessionTemplate> templates) {
+        try {
+            return sessionService.generateSessionsForDate(day, templates);
+        } catch (Exception e) {
+            // 单日失败不影响其他日期，下一次补齐时重试
+            logger.error("生成 {} 的场次失败: {}", day, e.getMessage(), e);
+            return 0;
+        }
+    }
+}
@@ -6,65 +6,86 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+
 @Service
 public class SessionSchedulerService {
     
     private static final Logger logger = LoggerFactory.getLogger(SessionSchedulerService.class);
-    private static final int MAX_RETRY_ATTEMPTS = 3;
+    
+    // 场次清理与生成共用一个任务锁，同一时间集群内只有一个实例在修改场次
+    private static final String GENERATION_JOB = "session-generation";
     
     @Autowired
     private SessionService sessionService;
     
+    @Autowired
+    private SessionHorizonService sessionHorizonService;
+    
+    @Autowired
+    private JobLockService jobLockService;
+    
     /**
-     * 每日0点自动生成次日场次
-     * 根据所有场次模板生成场次，包括不开放的场次（以保留备注信息）
-     * 如果生成失败，最多重试3次
+     * 每日0点滚动可预订窗口
+     * 清除过期场次后，根据所有场次模板补齐窗口内缺少的场次，包括不开放的场次（以保留备注信息）
+     * 以触发日期作为执行标识，各实例时钟不一致时同一天的任务也只执行一次；失败时不记录执行标识，由整点补齐重试
      */
     @Scheduled(cron = "0 0 0 * * ?") // 每天0点执行
-    public void generateNextDaySessionsScheduled() {
+    public void rollBookingHorizonScheduled() {
         logger.info("开始执行每日场次生成任务（包括不开放的场次）...");
-        
-        int attemptCount = 0;
-        boolean success = false;
-        
-        while (attemptCount < MAX_RETRY_ATTEMPTS && !success) {
-            attemptCount++;
-            logger.info("第 {} 次尝试生成次日场次", attemptCount);
+        try {
+            rollBookingHorizon(LocalDate.now().toString());
+        } catch (Exception e) {
+            logger.error("每日场次生成任务失败，将在整点补齐时重试: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * 清除过期场次并补齐可预订窗口，启动时和每日0点执行
+     * 多实例部署时只有取得任务租约的实例执行，其他实例跳过
+     *
+     * @return 本实例是否执行了任务
+     */
+    public boolean rollBookingHorizon() {
+        return rollBookingHorizon(null);
+    }
+    
+    /**
+     * 归档或生成失败时异常抛出租约任务，不记录执行标识
+     */
+    private boolean rollBookingHorizon(String runKey) {
+        return jobLockService.runExclusive(GENERATION_JOB, runKey, lease -> {
+            // 清除过期场次
+            sessionService.clearExpiredSessions();
             
-            try {
-                // 清除过期场次
-                sessionService.clearExpiredSessions();
-                
-                // 生成次日场次
-                success = sessionService.generateNextDaySessions();
-                
-                if (success) {
-                    logger.info("场次生成成功，共尝试 {} 次", attemptCount);
-                } else {
-                    logger.warn("场次生成失败，第 {} 次尝试", attemptCount);
-                    if (attemptCount < MAX_RETRY_ATTEMPTS) {
-                        // 等待5秒后重试
-                        Thread.sleep(5000);
-                    }
-                }
-                
-            } catch (Exception e) {
-                logger.error("场次生成过程中发生异常，第 {} 次尝试: {}", attemptCount, e.getMessage(), e);
-                if (attemptCount < MAX_RETRY_ATTEMPTS) {
-                    try {
-                        // 等待5秒后重试
-                        Thread.sleep(5000);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        logger.error("重试等待被中断", ie);
-                        break;
-                    }
-                }
+            // 归档耗时超过租约时，其他实例可能已接管，不再继续生成
+            if (!jobLockService.isHeld(lease)) {
+                logger.warn("任务租约已失效（令牌 {}），跳过本次场次生成", lease.fencingToken());
+                return;
             }
-        }
-        
-        if (!success) {
-            logger.error("场次生成最终失败，已尝试 {} 次", MAX_RETRY_ATTEMPTS);
+            
+            // 补齐可预订窗口内的场次
+            sessionHorizonService.fillHorizon();
+        });
+    }
+    
+    /**
+     * 每小时补齐一次可预订窗口，替代失败重试：
+     * 当天的0点任务没有成功记录（失败或停机期间错过）时重新执行完整的滚动（含归档），
+     * 否则只补齐缺少的日期（如修改可预订天数后）
+     */
+    @Scheduled(cron = "0 5 * * * ?") // 每小时5分执行
+    public void catchUpBookingHorizonScheduled() {
+        try {
+            String today = LocalDate.now().toString();
+            if (!today.equals(jobLockService.lastRunKey(GENERATION_JOB))) {
+                logger.info("当天的场次滚动没有成功记录，重新执行归档与生成");
+                rollBookingHorizon(today);
+                return;
+            }
+            jobLockService.runExclusive(GENERATION_JOB, lease -> sessionHorizonService.fillHorizon());
+        } catch (Exception e) {
+            logger.error("补齐可预订窗口失败: {}", e.getMessage(), e);
         }
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
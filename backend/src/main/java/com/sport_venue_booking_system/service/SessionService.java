@@ -1,9 +1,16 @@
 package com.sport_venue_booking_system.service;
 
+import com.sport_venue_booking_system.dto.SessionDaySnapshot;
+import com.sport_venue_booking_system.dto.SessionGrid;
+import com.sport_venue_booking_system.dto.TemplatePropagation;
 import com.sport_venue_booking_system.entity.Session;
+import com.sport_venue_booking_system.entity.SessionTemplate;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface SessionService {
     
@@ -42,6 +49,21 @@ public interface SessionService {
      */
     List<Session> getAvailableSessionsBetween(LocalDateTime start, LocalDateTime end);
     
+    /**
+     * 获取指定日期的场次（带缓存，返回结果只读）
+     */
+    SessionDaySnapshot getSessionsByDate(LocalDate date);
+    
+    /**
+     * 获取指定日期的可预订场次（带缓存，返回结果只读）
+     */
+    SessionDaySnapshot getAvailableSessionsByDate(LocalDate date);
+    
+    /**
+     * 获取指定日期的场地×小时场次矩阵（与当日场次列表共用缓存）
+     */
+    SessionGrid getSessionGrid(LocalDate date);
+    
     /**
      * 创建场次
      */
@@ -67,23 +89,83 @@ public interface SessionService {
      */
     Session markSessionAsAvailable(Long id);
     
+    /**
+     * 批量更新场次预订状态（单条语句，不读取场次）
+     */
+    int updateBookedStatus(List<Long> ids, boolean booked);
+    
+    /**
+     * 写回内存库存已占用的场次：条件更新未预订且开放的场次，全部更新成功返回true，
+     * 场次已删除、归档或不可预订时返回false（调用方需回滚事务）
+     */
+    boolean bookSessions(Collection<Long> ids, LocalDateTime now);
+    
+    /**
+     * 条件占用一组场次，全部占用成功时返回占用的场次，否则返回null（调用方需回滚事务）
+     */
+    List<Session> claimSessions(Collection<Long> ids, LocalDateTime now);
+    
+    /**
+     * 条件释放指定场地和时间的场次
+     */
+    boolean releaseSession(String courtName, LocalDateTime startTime);
+    
+    /**
+     * 根据ID批量获取场次
+     */
+    List<Session> getSessionsByIds(Collection<Long> ids);
+    
+    /**
+     * 预留一组场次，全部预留成功返回true，否则返回false（调用方需回滚事务）
+     */
+    boolean holdSessions(Collection<Long> ids, LocalDateTime now, LocalDateTime holdUntil);
+    
+    /**
+     * 确认预留，全部确认成功返回true（预留已过期释放时返回false）
+     */
+    boolean confirmHold(Collection<Long> ids, LocalDateTime holdUntil);
+    
+    /**
+     * 释放预留，返回实际释放的场次数
+     */
+    int releaseHold(Collection<Long> ids, LocalDateTime holdUntil);
+    
+    /**
+     * 获取处于预留中的场次
+     */
+    List<Session> getHeldSessions();
+    
+    /**
+     * 获取一组场次涉及的场地名称
+     */
+    List<String> getCourtNames(Collection<Long> ids);
+    
     /**
      * 根据模板生成次日场次
      */
     boolean generateNextDaySessions();
     
     /**
-     * 清除过期场次
+     * 按模板生成指定日期缺少的场次（独立事务），返回新生成的数量
      */
-    void clearExpiredSessions();
+    int generateSessionsForDate(LocalDate date, List<SessionTemplate> templates);
     
     /**
-     * 检查场次表是否为空
+     * 按日期统计 [from, to) 内的场次数量，没有场次的日期不包含在结果中
      */
-    boolean isSessionTableEmpty();
+    Map<LocalDate, Long> countSessionsByDate(LocalDate from, LocalDate to);
     
     /**
-     * 初始化场次（直接生成场次，如果完全相同的场次已存在则跳过）
+     * 把模板变化同步到已生成的未预订未来场次，已预订的场次保持不变
+     *
+     * @param before 变化前的模板，新建模板时为null
+     * @param after  变化后的模板，删除模板时为null
+     * @param apply  为false时只统计将要修改的场次数
      */
-    void initializeSessionsIfEmpty();
+    TemplatePropagation propagateTemplate(SessionTemplate before, SessionTemplate after, boolean apply);
+    
+    /**
+     * 清除过期场次（失败时抛出异常）
+     */
+    void clearExpiredSessions();
 } 
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.sport_venue_booking_system.service;
 
+import com.sport_venue_booking_system.dto.TemplatePropagation;
 import com.sport_venue_booking_system.entity.SessionTemplate;
 
 import java.util.List;
@@ -10,11 +11,26 @@ public interface SessionTemplateService {
     
     SessionTemplate getTemplateById(Long id);
     
-    SessionTemplate createTemplate(SessionTemplate template);
+    /**
+     * 创建模板并在已生成场次的日期中补充该模板的场次
+     *
+     * @param dryRun 为true时只返回同步预览，不保存
+     */
+    TemplatePropagation createTemplate(SessionTemplate template, boolean dryRun);
     
-    SessionTemplate updateTemplate(Long id, SessionTemplate template);
+    /**
+     * 更新模板并同步到未预订的未来场次
+     *
+     * @param dryRun 为true时只返回同步预览，不保存
+     */
+    TemplatePropagation updateTemplate(Long id, SessionTemplate template, boolean dryRun);
     
-    void deleteTemplate(Long id);
+    /**
+     * 删除模板并删除其未预订的未来场次
+     *
+     * @param dryRun 为true时只返回同步预览，不删除
+     */
+    TemplatePropagation deleteTemplate(Long id, boolean dryRun);
     
     List<SessionTemplate> getTemplatesByCourtName(String courtName);
     
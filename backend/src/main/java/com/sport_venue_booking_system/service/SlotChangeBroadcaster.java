@@ -0,0 +1,262 @@
+package com.sport_venue_booking_system.service;
+
+import com.sport_venue_booking_system.dto.SlotChange;
+import com.sport_venue_booking_system.event.SessionChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 场次变化推送（Server-Sent Events）
+ * 事务提交后的场次变化先放入无锁队列，发布方不会被阻塞；
+ * 推送线程按固定间隔取出队列中的变化，按(场地, 开始时间)合并后按日期分组，放入订阅了该日期的客户端的发送队列，
+ * 同一场次在一个间隔内的多次变化只发送最后的状态。
+ * 每个客户端有独立的有界发送队列，由发送线程池异步写出：网络缓冲区已满的慢客户端只占用一个发送线程，
+ * 不影响推送线程和其他客户端；发送队列溢出的客户端被断开，重新连接后重新获取场次。
+ */
+@Service
+public class SlotChangeBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlotChangeBroadcaster.class);
+
+    @Value("${session-stream.flush-interval-ms:500}")
+    private long flushIntervalMs;
+
+    @Value("${session-stream.heartbeat-ms:25000}")
+    private long heartbeatMs;
+
+    @Value("${session-stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${session-stream.max-subscribers:2000}")
+    private int maxSubscribers;
+
+    @Value("${session-stream.send-threads:4}")
+    private int sendThreads;
+
+    @Value("${session-stream.subscriber-queue:32}")
+    private int subscriberQueue;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Queue<SlotChange> pending = new ConcurrentLinkedQueue<>();
+
+    private ScheduledExecutorService flushExecutor;
+    private ExecutorService sendExecutor;
+    private long lastHeartbeat = System.currentTimeMillis();
+
+    @PostConstruct
+    public void init() {
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "slot-change-broadcaster");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadIndex = new AtomicInteger();
+        sendExecutor = Executors.newFixedThreadPool(Math.max(1, sendThreads), r -> {
+            Thread thread = new Thread(r, "slot-change-sender-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushExecutor.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdownNow();
+        sendExecutor.shutdownNow();
+        subscribers.forEach(subscriber -> {
+            subscriber.closed = true;
+            subscriber.emitter.complete();
+        });
+        subscribers.clear();
+    }
+
+    /**
+     * 订阅场次变化
+     *
+     * @param date 只接收该日期的变化，为null时接收全部
+     * @return 订阅数已满时返回null
+     */
+    public SseEmitter subscribe(LocalDate date) {
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        register(emitter, date);
+        return emitter;
+    }
+
+    /**
+     * 登记订阅的连接并发送连接成功的注释行
+     */
+    void register(SseEmitter emitter, LocalDate date) {
+        Subscriber subscriber = new Subscriber(emitter, date, subscriberQueue);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        subscribers.add(subscriber);
+        enqueue(subscriber, SseEmitter.event().comment("connected"));
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * 场次变化提交后登记待发送
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSessionChanged(SessionChangedEvent event) {
+        if (!subscribers.isEmpty()) {
+            pending.addAll(event.getChanges());
+        }
+    }
+
+    private void flush() {
+        try {
+            // 同一场次只保留最后的状态
+            Map<SlotKey, SlotChange> batch = new LinkedHashMap<>();
+            SlotChange change;
+            while ((change = pending.poll()) != null) {
+                batch.put(new SlotKey(change.getCourtName(), change.getStartTime()), change);
+            }
+            if (batch.isEmpty()) {
+                heartbeat();
+                return;
+            }
+
+            Map<LocalDate, List<SlotChange>> byDate = new TreeMap<>();
+            for (SlotChange latest : batch.values()) {
+                byDate.computeIfAbsent(latest.getStartTime().toLocalDate(), d -> new ArrayList<>()).add(latest);
+            }
+            List<SlotChange> all = new ArrayList<>(batch.values());
+            for (Subscriber subscriber : subscribers) {
+                List<SlotChange> changes = subscriber.date == null ? all : byDate.get(subscriber.date);
+                if (changes != null && !changes.isEmpty()) {
+                    enqueue(subscriber, SseEmitter.event().name("slots").data(changes));
+                }
+            }
+            lastHeartbeat = System.currentTimeMillis();
+        } catch (Exception e) {
+            logger.error("场次变化推送失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 长时间没有变化时发送注释行，避免代理关闭空闲连接
+     */
+    private void heartbeat() {
+        long now = System.currentTimeMillis();
+        if (now - lastHeartbeat < heartbeatMs) {
+            return;
+        }
+        lastHeartbeat = now;
+        for (Subscriber subscriber : subscribers) {
+            enqueue(subscriber, SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    /**
+     * 放入客户端的发送队列，队列已满时断开该客户端
+     */
+    private void enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (subscriber.closed) {
+            return;
+        }
+        if (!subscriber.queue.offer(event)) {
+            logger.warn("场次推送客户端发送队列已满，断开连接");
+            remove(subscriber);
+            subscriber.queue.clear();
+        }
+        scheduleDrain(subscriber);
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (!subscriber.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sendExecutor.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            // 已关闭
+            subscriber.draining.set(false);
+        }
+    }
+
+    /**
+     * 在发送线程中依次写出队列中的事件；已断开的客户端在这里结束连接，
+     * 不在推送线程中调用（SseEmitter的发送和结束使用同一把锁，结束会等待阻塞中的发送）
+     */
+    private void drain(Subscriber subscriber) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while (!subscriber.closed && (event = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(event);
+            }
+            if (subscriber.closed && subscriber.finished.compareAndSet(false, true)) {
+                subscriber.emitter.complete();
+            }
+        } catch (Exception e) {
+            // 客户端已断开
+            remove(subscriber);
+            if (subscriber.finished.compareAndSet(false, true)) {
+                subscriber.emitter.completeWithError(e);
+            }
+        } finally {
+            subscriber.draining.set(false);
+        }
+        if (subscriber.closed ? !subscriber.finished.get() : !subscriber.queue.isEmpty()) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribers.remove(subscriber);
+    }
+
+    private static final class Subscriber {
+
+        final SseEmitter emitter;
+        final LocalDate date;
+        final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean finished = new AtomicBoolean();
+        volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, LocalDate date, int queueCapacity) {
+            this.emitter = emitter;
+            this.date = date;
+            this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        }
+    }
+
+    private record SlotKey(String courtName, LocalDateTime startTime) {
+    }
+}
@@ -0,0 +1,213 @@
+package com.sport_venue_booking_system.service;
+
+import com.sport_venue_booking_system.common.BusinessException;
+import com.sport_venue_booking_system.common.ResultCode;
+import com.sport_venue_booking_system.dto.SlotHold;
+import com.sport_venue_booking_system.entity.Session;
+import com.sport_venue_booking_system.utils.HashedTimingWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 场次预留登记
+ * 预留中的场次在数据库中标记为已预订并记录预留截止时间，过期由哈希时间轮触发，
+ * 释放时以预留截止时间作为条件，保证确认和过期只有一个生效。
+ * 预留登记保存在当前实例内存中，确认请求需要回到下预留的实例。
+ */
+@Service
+public class SlotHoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlotHoldService.class);
+
+    // 预留写入数据库期间占住用户的登记位置，登记完成后替换为预留ID
+    private static final String RESERVING = "";
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SystemConfigService systemConfigService;
+
+    @Value("${booking.hold.tick-ms:100}")
+    private long tickMs;
+
+    @Value("${booking.hold.wheel-size:512}")
+    private int wheelSize;
+
+    private final Map<String, HoldEntry> holds = new ConcurrentHashMap<>();
+    private final Map<Long, String> holdIdsByUser = new ConcurrentHashMap<>();
+
+    private ExecutorService expiryExecutor;
+    private HashedTimingWheel timingWheel;
+
+    @PostConstruct
+    public void init() {
+        expiryExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "slot-hold-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timingWheel = new HashedTimingWheel("slot-hold-timer", tickMs, TimeUnit.MILLISECONDS, wheelSize, expiryExecutor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timingWheel.stop();
+        expiryExecutor.shutdown();
+    }
+
+    /**
+     * 启动后接管数据库中遗留的预留（如重启前未确认的预留），到期后释放
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverHolds() {
+        Map<LocalDateTime, List<Long>> held = sessionService.getHeldSessions().stream()
+                .collect(Collectors.groupingBy(Session::getHoldUntil,
+                        Collectors.mapping(Session::getId, Collectors.toList())));
+        held.forEach((holdUntil, sessionIds) ->
+                timingWheel.schedule(() -> release(sessionIds, holdUntil), delayMillis(holdUntil), TimeUnit.MILLISECONDS));
+        if (!held.isEmpty()) {
+            logger.info("接管遗留的场次预留 {} 组", held.size());
+        }
+    }
+
+    /**
+     * 预留时长（分钟），读取系统配置 hold_duration_minutes
+     */
+    public int getHoldMinutes() {
+        return systemConfigService.getSnapshot().holdDurationMinutes();
+    }
+
+    /**
+     * 计算新预留的截止时间（精确到秒，与数据库DATETIME一致）
+     */
+    public LocalDateTime nextHoldUntil(LocalDateTime now) {
+        return now.plusMinutes(getHoldMinutes()).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    /**
+     * 为用户占住预留登记位置，用户已有未确认的预留（或正在预留）时拒绝；
+     * 检查和占位是一次原子操作，同一用户并发的预留请求只有一个通过
+     */
+    public void reserve(Long userId) {
+        if (holdIdsByUser.putIfAbsent(userId, RESERVING) != null) {
+            throw new BusinessException(ResultCode.OPERATION_NOT_ALLOWED, "您有未确认的预留，请先确认或取消");
+        }
+    }
+
+    /**
+     * 放弃用户正在进行的预留（预留事务回滚时调用），已登记的预留一并移除，不再安排释放
+     */
+    public void abandon(Long userId) {
+        String holdId = holdIdsByUser.remove(userId);
+        if (holdId == null || RESERVING.equals(holdId)) {
+            return;
+        }
+        HoldEntry entry = holds.remove(holdId);
+        if (entry != null) {
+            entry.timeout().cancel();
+        }
+    }
+
+    /**
+     * 登记已写入数据库的预留，并安排到期释放
+     */
+    public SlotHold register(Long userId, List<Session> sessions, LocalDateTime holdUntil) {
+        BigDecimal totalPrice = sessions.stream().map(Session::getPrice).reduce(BigDecimal.ZERO, BigDecimal::add);
+        SlotHold hold = new SlotHold(UUID.randomUUID().toString(), sessions.stream().map(Session::getId).toList(),
+                totalPrice, holdUntil);
+        schedule(userId, hold);
+        return hold;
+    }
+
+    /**
+     * 取出预留用于确认，取出后不会再过期释放
+     */
+    public SlotHold take(String holdId, Long userId) {
+        HoldEntry entry = holds.get(holdId);
+        if (entry == null || !entry.userId().equals(userId)) {
+            throw new BusinessException(ResultCode.NOT_FOUND, "预留不存在或已过期");
+        }
+        if (!entry.hold().getExpireTime().isAfter(LocalDateTime.now()) || !holds.remove(holdId, entry)) {
+            throw new BusinessException(ResultCode.SESSION_EXPIRED, "预留已过期，请重新选择场次");
+        }
+        entry.timeout().cancel();
+        holdIdsByUser.remove(userId, holdId);
+        return entry.hold();
+    }
+
+    /**
+     * 重新登记取出的预留（确认失败回滚时调用）
+     */
+    public void restore(Long userId, SlotHold hold) {
+        schedule(userId, hold);
+    }
+
+    /**
+     * 取消预留并立即释放场次
+     */
+    public void cancel(String holdId, Long userId) {
+        SlotHold hold = take(holdId, userId);
+        release(hold.getSessionIds(), hold.getExpireTime());
+    }
+
+    /**
+     * 当前登记的预留数量
+     */
+    public int getActiveHoldCount() {
+        return holds.size();
+    }
+
+    private void schedule(Long userId, SlotHold hold) {
+        String holdId = hold.getHoldId();
+        HashedTimingWheel.Timeout timeout = timingWheel.schedule(() -> expire(holdId),
+                delayMillis(hold.getExpireTime()), TimeUnit.MILLISECONDS);
+        holds.put(holdId, new HoldEntry(userId, hold, timeout));
+        holdIdsByUser.put(userId, holdId);
+    }
+
+    private void expire(String holdId) {
+        // 只有仍在登记中的预留才释放，已被确认取出的跳过
+        HoldEntry entry = holds.get(holdId);
+        if (entry != null && holds.remove(holdId, entry)) {
+            holdIdsByUser.remove(entry.userId(), holdId);
+            release(entry.hold().getSessionIds(), entry.hold().getExpireTime());
+        }
+    }
+
+    private void release(List<Long> sessionIds, LocalDateTime holdUntil) {
+        try {
+            int released = sessionService.releaseHold(sessionIds, holdUntil);
+            logger.debug("释放预留场次 {} 个", released);
+        } catch (Exception e) {
+            logger.error("释放预留场次失败: {}", e.getMessage(), e);
+        }
+    }
+
+    private long delayMillis(LocalDateTime holdUntil) {
+        return Math.max(0, Duration.between(LocalDateTime.now(), holdUntil).toMillis());
+    }
+
+    private record HoldEntry(Long userId, SlotHold hold, HashedTimingWheel.Timeout timeout) {
+    }
+}
@@ -0,0 +1,268 @@
+package com.sport_venue_booking_system.service;
+
+import com.sport_venue_booking_system.common.BookingMode;
+import com.sport_venue_booking_system.common.BusinessException;
+import com.sport_venue_booking_system.common.ResultCode;
+import com.sport_venue_booking_system.entity.Session;
+import com.sport_venue_booking_system.repository.SessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 内存场次库存
+ * 每个场地每天一个位图（第 h 位表示 h 点开始的场次是否已预订），通过 CAS 原子占用场次，
+ * 预订判定不访问数据库，由调用方把结果写回数据库。
+ * 仅在 booking.mode=inventory 时启用，且只适用于单实例部署。
+ */
+@Service
+public class SlotInventoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlotInventoryService.class);
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Value("${booking.mode:database}")
+    private BookingMode bookingMode;
+
+    private final Map<Long, Slot> slotsById = new ConcurrentHashMap<>();
+    private final Map<CourtDayKey, CourtDay> courtDays = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded = false;
+
+    public boolean isEnabled() {
+        return bookingMode == BookingMode.INVENTORY;
+    }
+
+    /**
+     * 库存是否已加载完成，可以用于预订判定
+     */
+    public boolean isReady() {
+        return isEnabled() && loaded;
+    }
+
+    /**
+     * 从数据库加载今天及以后的场次，由启动初始化在场次生成后调用
+     */
+    public void load() {
+        if (!isEnabled()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        List<Session> sessions = sessionRepository.findByStartTimeGreaterThanEqualOrderByStartTime(
+                LocalDate.now().atStartOfDay());
+        for (Session session : sessions) {
+            register(session);
+        }
+        loaded = true;
+        logger.info("内存场次库存加载完成，共 {} 个场次，耗时 {} ms", sessions.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 原子占用一组场次，任一场次不可预订时回滚已占用的场次并抛出异常
+     *
+     * @return 已占用场次的快照（已标记为已预订）
+     */
+    public List<Session> claim(List<Long> sessionIds, LocalDateTime now) {
+        List<Slot> slots = new ArrayList<>(sessionIds.size());
+        for (Long sessionId : sessionIds) {
+            Slot slot = resolve(sessionId);
+            if (slot == null) {
+                throw new BusinessException(ResultCode.SESSION_NOT_FOUND, "场次不存在: " + sessionId);
+            }
+            if (!slot.active()) {
+                throw new BusinessException(ResultCode.SESSION_UNAVAILABLE, "场次不可预订: " + slot.courtName() + " " + slot.startTime());
+            }
+            if (slot.startTime().isBefore(now)) {
+                throw new BusinessException(ResultCode.SESSION_EXPIRED, "场次已过期: " + slot.courtName() + " " + slot.startTime());
+            }
+            slots.add(slot);
+        }
+
+        List<Slot> claimed = new ArrayList<>(slots.size());
+        for (Slot slot : slots) {
+            if (!courtDay(slot.courtName(), slot.startTime()).tryClaim(slot.startTime().getHour())) {
+                claimed.forEach(s -> setBooked(s.courtName(), s.startTime(), false));
+                throw new BusinessException(ResultCode.SESSION_ALREADY_BOOKED, "场次已被预订: " + slot.courtName() + " " + slot.startTime());
+            }
+            claimed.add(slot);
+        }
+
+        return claimed.stream().map(slot -> slot.toSession(true)).toList();
+    }
+
+    /**
+     * 释放一组场次
+     */
+    public void release(Collection<Session> sessions) {
+        for (Session session : sessions) {
+            setBooked(session.getCourtName(), session.getStartTime(), false);
+        }
+    }
+
+    /**
+     * 根据场地和开始时间查找场次ID，不存在时返回null
+     */
+    public Long findSessionId(String courtName, LocalDateTime startTime) {
+        CourtDay day = courtDays.get(new CourtDayKey(courtName, startTime.toLocalDate()));
+        if (day == null) {
+            return null;
+        }
+        Slot slot = day.slots.get(startTime.getHour());
+        return slot != null && slot.startTime().equals(startTime) ? slot.id() : null;
+    }
+
+    /**
+     * 同步场次的预订状态
+     */
+    public void setBooked(String courtName, LocalDateTime startTime, boolean booked) {
+        CourtDay day = courtDays.get(new CourtDayKey(courtName, startTime.toLocalDate()));
+        if (day != null) {
+            day.setBooked(startTime.getHour(), booked);
+        }
+    }
+
+    /**
+     * 按场次ID同步预订状态
+     */
+    public void setBooked(Long sessionId, boolean booked) {
+        Slot slot = slotsById.get(sessionId);
+        if (slot != null) {
+            setBooked(slot.courtName(), slot.startTime(), booked);
+        }
+    }
+
+    /**
+     * 登记或更新场次（场次创建、修改、生成时调用）
+     * 已登记的场次只更新价格、开放状态和备注，不修改预订位：调用方传入的场次可能是事务提交前读取的快照，
+     * 用它覆盖预订位会清除期间通过CAS占用的场次。预订状态只通过 claim/release/setBooked 修改；
+     * 首次登记（或场地、时间变化后登记到新位置）时才按快照设置预订位。
+     */
+    public void register(Session session) {
+        if (!isEnabled() || session.getId() == null) {
+            return;
+        }
+        Slot slot = Slot.of(session);
+        Slot previous = slotsById.put(slot.id(), slot);
+        boolean placed = previous == null || !previous.courtName().equals(slot.courtName())
+                || !previous.startTime().equals(slot.startTime());
+        if (previous != null && placed) {
+            removeFromDay(previous);
+        }
+
+        CourtDay day = courtDay(slot.courtName(), slot.startTime());
+        int hour = slot.startTime().getHour();
+        Slot occupant = day.slots.get(hour);
+        if (occupant != null && !occupant.id().equals(slot.id())) {
+            logger.warn("场次 {} 与场次 {} 位于同一小时，库存只保留后者", occupant.id(), slot.id());
+            placed = true;
+        }
+        day.slots.set(hour, slot);
+        if (placed) {
+            day.setBooked(hour, Boolean.TRUE.equals(session.getIsBooked()));
+        }
+    }
+
+    /**
+     * 移除场次（场次删除时调用）
+     */
+    public void unregister(Long sessionId) {
+        Slot slot = slotsById.remove(sessionId);
+        if (slot != null) {
+            removeFromDay(slot);
+        }
+    }
+
+    /**
+     * 移除指定日期之前的所有场次（清除过期场次后调用）
+     */
+    public void evictBefore(LocalDate date) {
+        courtDays.keySet().removeIf(key -> key.date().isBefore(date));
+        slotsById.values().removeIf(slot -> slot.startTime().toLocalDate().isBefore(date));
+    }
+
+    private Slot resolve(Long sessionId) {
+        Slot slot = slotsById.get(sessionId);
+        if (slot == null) {
+            // 库存中没有的场次（如加载后由其他途径写入），回源数据库并登记
+            Session session = sessionRepository.findById(sessionId).orElse(null);
+            if (session == null) {
+                return null;
+            }
+            register(session);
+            slot = slotsById.get(sessionId);
+        }
+        return slot;
+    }
+
+    private void removeFromDay(Slot slot) {
+        CourtDay day = courtDays.get(new CourtDayKey(slot.courtName(), slot.startTime().toLocalDate()));
+        if (day != null) {
+            int hour = slot.startTime().getHour();
+            Slot current = day.slots.get(hour);
+            if (current != null && current.id().equals(slot.id())) {
+                day.slots.set(hour, null);
+                day.setBooked(hour, false);
+            }
+        }
+    }
+
+    private CourtDay courtDay(String courtName, LocalDateTime startTime) {
+        return courtDays.computeIfAbsent(new CourtDayKey(courtName, startTime.toLocalDate()), key -> new CourtDay());
+    }
+
+    private record CourtDayKey(String courtName, LocalDate date) {
+    }
+
+    private record Slot(Long id, String courtName, LocalDateTime startTime, BigDecimal price, boolean active,
+                        String note) {
+
+        static Slot of(Session session) {
+            return new Slot(session.getId(), session.getCourtName(), session.getStartTime(), session.getPrice(),
+                    Boolean.TRUE.equals(session.getIsActive()), session.getNote());
+        }
+
+        Session toSession(boolean booked) {
+            return new Session(id, courtName, startTime, price, active, booked, note, null);
+        }
+    }
+
+    /**
+     * 单个场地单日的场次位图
+     */
+    private static final class CourtDay {
+        private final AtomicInteger booked = new AtomicInteger();
+        private final AtomicReferenceArray<Slot> slots = new AtomicReferenceArray<>(24);
+
+        boolean tryClaim(int hour) {
+            int bit = 1 << hour;
+            int current;
+            do {
+                current = booked.get();
+                if ((current & bit) != 0) {
+                    return false;
+                }
+            } while (!booked.compareAndSet(current, current | bit));
+            return true;
+        }
+
+        void setBooked(int hour, boolean value) {
+            int bit = 1 << hour;
+            booked.getAndUpdate(current -> value ? current | bit : current & ~bit);
+        }
+    }
+}
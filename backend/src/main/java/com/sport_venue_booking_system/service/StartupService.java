@@ -0,0 +1,201 @@
+package com.sport_venue_booking_system.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 启动初始化
+ * 先加载内存库存，再清除过期场次并补齐可预订窗口，最后并行预热按日期的场次缓存和管理端统计计数。
+ * startup.async-init 为true时初始化在后台线程执行，应用不等待初始化即开始监听端口，
+ * 场次数据加载完成前就绪检查返回未就绪；每个阶段的耗时记录在启动报告中。
+ */
+@Service
+public class StartupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupService.class);
+
+    @Autowired
+    private SessionSchedulerService sessionSchedulerService;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionHorizonService sessionHorizonService;
+
+    @Autowired
+    private SlotInventoryService slotInventoryService;
+
+    @Autowired
+    private DashboardStatsService dashboardStatsService;
+
+    @Value("${startup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${startup.async-init:true}")
+    private boolean asyncInit;
+
+    @Value("${startup.warmup-parallelism:4}")
+    private int warmupParallelism;
+
+    private final Map<String, Map<String, Object>> phases = new ConcurrentHashMap<>();
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private volatile long contextStartupMs = -1;
+    private volatile boolean finished;
+    private volatile boolean ready;
+    private volatile ExecutorService warmupExecutor;
+
+    @PreDestroy
+    public void shutdown() {
+        ExecutorService executor = warmupExecutor;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 执行启动初始化，异步模式下立即返回
+     */
+    public void initialize() {
+        if (!enabled) {
+            finished = true;
+            logger.warn("startup.enabled为false，跳过启动初始化，场次数据不会加载，就绪检查保持未就绪");
+            return;
+        }
+        if (!asyncInit) {
+            runInitialization();
+            return;
+        }
+        Thread thread = new Thread(this::runInitialization, "startup-init");
+        thread.setDaemon(true);
+        thread.start();
+        logger.info("启动初始化在后台执行，完成前就绪检查返回未就绪");
+    }
+
+    /**
+     * 记录Spring上下文启动耗时
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        contextStartupMs = event.getTimeTaken() != null ? event.getTimeTaken().toMillis() : -1;
+    }
+
+    /**
+     * 场次数据是否已加载完成，可以接收流量
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 启动报告：就绪状态与各阶段耗时
+     */
+    public Map<String, Object> getReport() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("ready", ready);
+        report.put("finished", finished);
+        report.put("asyncInit", asyncInit);
+        report.put("startedAt", startedAt);
+        report.put("contextStartupMs", contextStartupMs);
+        report.put("phases", new LinkedHashMap<>(phases));
+        return report;
+    }
+
+    private void runInitialization() {
+        long startMillis = System.currentTimeMillis();
+        try {
+            // 内存库存最先加载：加载完成前 inventory 模式的预订请求直接拒绝，不等待耗时较长的归档和场次生成；
+            // 之后生成的场次在事务提交后登记到库存
+            boolean inventory = runPhase("inventory", slotInventoryService::load);
+
+            // 清除过期场次，补齐可预订窗口内的场次（已存在的场次跳过），其他实例正在执行时本实例跳过
+            // 归档或生成失败不影响就绪（已有的场次仍可预订），由整点补齐重试
+            boolean sessionsReady = runPhase("sessions", () -> {
+                try {
+                    if (!sessionSchedulerService.rollBookingHorizon()) {
+                        logger.info("其他实例正在初始化场次，本实例跳过");
+                    }
+                } catch (Exception e) {
+                    logger.error("启动时滚动可预订窗口失败，将在整点补齐时重试: {}", e.getMessage(), e);
+                }
+            });
+
+            // 场次生成完成后再预热，避免预热结果被生成产生的变化立即失效
+            AtomicInteger threadIndex = new AtomicInteger();
+            warmupExecutor = Executors.newFixedThreadPool(Math.max(1, warmupParallelism), r -> {
+                Thread thread = new Thread(r, "startup-warmup-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            CompletableFuture<Boolean> sessionCache = runPhaseAsync("sessionCache", this::warmSessionCache);
+            CompletableFuture<Boolean> dashboard = runPhaseAsync("dashboard", dashboardStatsService::reconcile);
+            List<CompletableFuture<Boolean>> warmups = List.of(sessionCache, dashboard);
+            CompletableFuture.allOf(warmups.toArray(new CompletableFuture[0])).join();
+
+            // 统计计数失败时读取会按需加载，不影响就绪；场次数据未加载完成时保持未就绪
+            ready = sessionsReady && inventory && sessionCache.join();
+            logger.info("启动初始化完成，就绪: {}，用时 {} ms", ready, System.currentTimeMillis() - startMillis);
+        } catch (Exception e) {
+            logger.error("启动初始化失败: {}", e.getMessage(), e);
+        } finally {
+            finished = true;
+            if (warmupExecutor != null) {
+                warmupExecutor.shutdown();
+            }
+        }
+    }
+
+    /**
+     * 预热可预订窗口内每天的场次列表与场次矩阵
+     */
+    private void warmSessionCache() {
+        LocalDate today = LocalDate.now();
+        LocalDate end = today.plusDays(sessionHorizonService.getHorizonDays() + 1L);
+        for (LocalDate day = today; day.isBefore(end); day = day.plusDays(1)) {
+            sessionService.getAvailableSessionsByDate(day);
+            sessionService.getSessionGrid(day);
+        }
+    }
+
+    private CompletableFuture<Boolean> runPhaseAsync(String name, Runnable task) {
+        return CompletableFuture.supplyAsync(() -> runPhase(name, task), warmupExecutor);
+    }
+
+    private boolean runPhase(String name, Runnable task) {
+        long start = System.currentTimeMillis();
+        Map<String, Object> phase = new LinkedHashMap<>();
+        boolean success;
+        try {
+            task.run();
+            phase.put("status", "done");
+            success = true;
+        } catch (Exception e) {
+            logger.error("启动阶段 {} 失败: {}", name, e.getMessage(), e);
+            phase.put("status", "failed");
+            phase.put("error", e.getMessage());
+            success = false;
+        }
+        long duration = System.currentTimeMillis() - start;
+        phase.put("durationMs", duration);
+        phases.put(name, phase);
+        logger.info("启动阶段 {} 用时 {} ms", name, duration);
+        return success;
+    }
+}
\ No newline at end of file
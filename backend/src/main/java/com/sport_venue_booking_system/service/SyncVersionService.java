@@ -0,0 +1,63 @@
+package com.sport_venue_booking_system.service;
+
+import com.sport_venue_booking_system.entity.SyncVersion;
+import com.sport_venue_booking_system.repository.SyncVersionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 持久化的版本号序列（sync_version表）
+ * 调用方按段预留版本号并在内存中逐个分配，每段只访问一次数据库；
+ * 重启或多实例时从数据库中已预留的最大值之后继续，版本号不会重复或回退。
+ */
+@Service
+public class SyncVersionService {
+
+    @Autowired
+    private SyncVersionRepository syncVersionRepository;
+
+    private final TransactionTemplate requiresNew;
+
+    public SyncVersionService(PlatformTransactionManager transactionManager) {
+        // 使用独立事务，可以在其他事务提交后的回调中调用
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 预留一段版本号
+     *
+     * @return 预留段的最大版本号，预留段为 (返回值 - count, 返回值]
+     */
+    public long reserve(String name, long count) {
+        try {
+            return doReserve(name, count);
+        } catch (DataIntegrityViolationException e) {
+            // 其他实例同时创建了该序列，重新预留
+            return doReserve(name, count);
+        }
+    }
+
+    /**
+     * 读取序列当前的值，序列不存在时返回0
+     */
+    public long current(String name) {
+        return syncVersionRepository.findById(name).map(SyncVersion::getVersion).orElse(0L);
+    }
+
+    private long doReserve(String name, long count) {
+        return requiresNew.execute(status -> {
+            if (syncVersionRepository.increment(name, count) == 0) {
+                syncVersionRepository.saveAndFlush(new SyncVersion(name, count));
+                return count;
+            }
+            return syncVersionRepository.findById(name)
+                    .map(SyncVersion::getVersion)
+                    .orElseThrow(() -> new RuntimeException("版本序列不存在: " + name));
+        });
+    }
+}
@@ -1,5 +1,6 @@
 package com.sport_venue_booking_system.service;
 
+import com.sport_venue_booking_system.dto.SystemConfigSnapshot;
 import com.sport_venue_booking_system.entity.SystemConfig;
 
 import java.util.List;
@@ -11,6 +12,11 @@ public interface SystemConfigService {
     
     String getConfigValue(String configKey);
     
+    /**
+     * 当前的配置快照（内存读取，不访问数据库）
+     */
+    SystemConfigSnapshot getSnapshot();
+    
     void updateConfig(String configKey, String configValue);
     
     void updateConfigs(Map<String, String> configs);
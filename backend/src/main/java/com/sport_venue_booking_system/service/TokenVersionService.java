@@ -0,0 +1,99 @@
+package com.sport_venue_booking_system.service;
+
+import com.sport_venue_booking_system.repository.UserRepository;
+import com.sport_venue_booking_system.utils.TransactionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 用户令牌版本缓存
+ * 令牌中携带签发时的令牌版本（ver），认证时与内存中的当前版本比较，版本不一致的令牌视为已失效。
+ * 当前版本首次使用时从数据库加载；本实例修改后直接更新缓存，并递增 sync_version 中的序列，
+ * 其他实例定期读取该序列，发现变化后清空缓存重新加载。
+ */
+@Service
+public class TokenVersionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenVersionService.class);
+    private static final String VERSION_NAME = "user_token_version";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SyncVersionService syncVersionService;
+
+    @Value("${token-version.max-entries:100000}")
+    private int maxEntries;
+
+    private final Map<Long, Integer> versions = new ConcurrentHashMap<>();
+    // 清空缓存时递增，清空前开始的加载结果不写入缓存
+    private final AtomicLong generation = new AtomicLong();
+    private volatile long syncVersion = -1;
+
+    /**
+     * 令牌版本是否为用户当前的版本（用户不存在时返回false）
+     */
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        Integer current = versions.get(userId);
+        if (current == null) {
+            long loadGeneration = generation.get();
+            current = userRepository.findTokenVersionById(userId).orElse(null);
+            if (current == null) {
+                return false;
+            }
+            if (versions.size() >= maxEntries) {
+                clear();
+            } else if (generation.get() == loadGeneration) {
+                // 版本只增不减：加载期间本实例提交的新版本已写入缓存时保留较大的值
+                current = versions.merge(userId, current, Math::max);
+            }
+        }
+        return current == tokenVersion;
+    }
+
+    /**
+     * 用户令牌版本已递增（已保存到数据库），事务提交后更新缓存并通知其他实例
+     */
+    public void recordChanged(Long userId, int tokenVersion) {
+        TransactionUtils.afterCommit(() -> {
+            long reserved = syncVersionService.reserve(VERSION_NAME, 1);
+            if (syncVersion >= 0 && reserved != syncVersion + 1) {
+                // 期间其他实例也有修改
+                clear();
+            }
+            syncVersion = reserved;
+            versions.merge(userId, tokenVersion, Math::max);
+        });
+    }
+
+    /**
+     * 定期检查其他实例是否修改了令牌版本
+     */
+    @Scheduled(fixedDelayString = "${token-version.refresh-interval-ms:5000}")
+    public void refreshIfChanged() {
+        try {
+            long current = syncVersionService.current(VERSION_NAME);
+            if (syncVersion >= 0 && current != syncVersion) {
+                clear();
+                logger.info("用户令牌版本已被其他实例修改，清空令牌版本缓存");
+            }
+            syncVersion = current;
+        } catch (Exception e) {
+            logger.warn("检查用户令牌版本失败: {}", e.getMessage());
+        }
+    }
+
+    private void clear() {
+        generation.incrementAndGet();
+        versions.clear();
+    }
+}
\ No newline at end of file
@@ -6,15 +6,18 @@ import com.sport_venue_booking_system.dto.RegisterRequest;
 import com.sport_venue_booking_system.dto.UserUpdateRequest;
 import com.sport_venue_booking_system.entity.User;
 import com.sport_venue_booking_system.repository.UserRepository;
+import com.sport_venue_booking_system.security.AuthenticatedUser;
 import com.sport_venue_booking_system.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Collections;
 import java.util.regex.Pattern;
 
@@ -25,11 +28,20 @@ public class UserService implements UserDetailsService {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private DashboardStatsService dashboardStatsService;
+
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
+    @Autowired
+    private RevokedTokenService revokedTokenService;
+
     // 手机号正则表达式
     private static final Pattern PHONE_PATTERN = Pattern.compile("^1[3-9]\\d{9}$");
 
@@ -85,15 +97,25 @@ public class UserService implements UserDetailsService {
         // 创建用户
         User user = new User();
         user.setUsername(request.getUsername());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
         user.setPhone(request.getPhone());
         user.setIsAdmin(false);
 
         userRepository.save(user);
+        dashboardStatsService.recordUserRegistered();
         return null; // 返回null表示注册成功
     }
 
     public LoginResponse login(LoginRequest request) {
+        long start = System.nanoTime();
+        try {
+            return doLogin(request);
+        } finally {
+            passwordHashingService.recordLogin(System.nanoTime() - start);
+        }
+    }
+
+    private LoginResponse doLogin(LoginRequest request) {
         // 查找用户
         User user = userRepository.findByUsername(request.getUsername())
                 .orElse(null);
@@ -103,12 +125,17 @@ public class UserService implements UserDetailsService {
         }
 
         // 验证密码
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
             throw new RuntimeException("密码错误");
         }
+        
+        // 哈希强度调整后，在后台按新强度重新哈希
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            passwordHashingService.rehashInBackground(user.getId(), request.getPassword(), user.getPassword());
+        }
 
         // 生成JWT token
-        String token = jwtUtil.generateToken(user.getUsername());
+        String token = jwtUtil.generateToken(user);
 
         return new LoginResponse(token, user.getUsername(), user.getIsAdmin());
     }
@@ -122,6 +149,7 @@ public class UserService implements UserDetailsService {
         }
 
         boolean usernameChanged = false;
+        boolean passwordChanged = false;
         boolean hasChanges = false;
 
         // 验证用户名
@@ -148,11 +176,12 @@ public class UserService implements UserDetailsService {
             if (request.getOldPassword() == null || request.getOldPassword().trim().isEmpty()) {
                 return "请输入旧密码";
             }
-            if (!passwordEncoder.matches(request.getOldPassword(), user.getPassword())) {
+            if (!passwordHashingService.matches(request.getOldPassword(), user.getPassword())) {
                 return "旧密码错误";
             }
             hasChanges = true;
-            user.setPassword(passwordEncoder.encode(request.getNewPassword()));
+            passwordChanged = true;
+            user.setPassword(passwordHashingService.encode(request.getNewPassword()));
         }
 
         // 验证手机号
@@ -167,26 +196,59 @@ public class UserService implements UserDetailsService {
             }
         }
 
+        // 用户名或密码变化时递增令牌版本，之前签发的令牌（包括其他设备上的）全部失效
+        boolean revokeTokens = usernameChanged || passwordChanged;
+        if (revokeTokens) {
+            user.setTokenVersion(user.getTokenVersion() + 1);
+        }
+        
         // 只有当有实际变化时才保存到数据库
         if (hasChanges) {
             userRepository.save(user);
         }
         
-        // 如果用户名发生变化，返回新的JWT token
-        if (usernameChanged) {
-            String newToken = jwtUtil.generateToken(user.getUsername());
+        // 令牌已失效时返回新的JWT token
+        if (revokeTokens) {
+            tokenVersionService.recordChanged(user.getId(), user.getTokenVersion());
+            String newToken = jwtUtil.generateToken(user);
             return "NEW_TOKEN:" + newToken; // 特殊标识，表示需要更新token
         }
         
         return null; // 返回null表示更新成功
     }
 
+    /**
+     * 使用户之前签发的令牌全部失效（如修改权限后），返回新的令牌版本
+     */
+    public int revokeTokens(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("用户不存在"));
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        userRepository.save(user);
+        tokenVersionService.recordChanged(user.getId(), user.getTokenVersion());
+        return user.getTokenVersion();
+    }
+
+    /**
+     * 退出登录，撤销当前令牌直到其过期，不影响同一用户的其他令牌
+     *
+     * @throws io.jsonwebtoken.JwtException token无效或已过期
+     */
+    public void logout(String token) {
+        String tokenHash = JwtUtil.tokenHash(token);
+        Claims claims = jwtUtil.parseToken(token, tokenHash);
+        AuthenticatedUser user = jwtUtil.getPrincipal(claims);
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault());
+        revokedTokenService.revoke(tokenHash, user != null ? user.id() : null, expiresAt);
+        jwtUtil.evict(token);
+    }
+
     public User getUserInfo(String username) {
         return userRepository.findByUsername(username)
                 .orElse(null);
     }
     
     public long getTotalUsers() {
-        return userRepository.count();
+        return dashboardStatsService.getTotalUsers();
     }
 } 
\ No newline at end of file
@@ -1,6 +1,11 @@
 package com.sport_venue_booking_system.service.impl;
 
+import com.sport_venue_booking_system.common.BookingMode;
+import com.sport_venue_booking_system.common.BusinessException;
+import com.sport_venue_booking_system.common.ResultCode;
+import com.sport_venue_booking_system.dto.CursorPage;
 import com.sport_venue_booking_system.dto.OrderVerificationResponse;
+import com.sport_venue_booking_system.dto.SlotHold;
 import com.sport_venue_booking_system.entity.Order;
 import com.sport_venue_booking_system.entity.OrderSession;
 import com.sport_venue_booking_system.entity.User;
@@ -8,22 +13,34 @@ import com.sport_venue_booking_system.entity.Session;
 import com.sport_venue_booking_system.repository.OrderRepository;
 import com.sport_venue_booking_system.repository.OrderSessionRepository;
 import com.sport_venue_booking_system.repository.UserRepository;
+import com.sport_venue_booking_system.service.DashboardStatsService;
 import com.sport_venue_booking_system.service.OrderService;
 import com.sport_venue_booking_system.service.SessionService;
+import com.sport_venue_booking_system.service.SlotHoldService;
+import com.sport_venue_booking_system.service.SlotInventoryService;
 import com.sport_venue_booking_system.service.SystemConfigService;
+import com.sport_venue_booking_system.utils.TransactionUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class OrderServiceImpl implements OrderService {
@@ -43,6 +60,20 @@ public class OrderServiceImpl implements OrderService {
     @Autowired
     private SystemConfigService systemConfigService;
     
+    @Autowired
+    private SlotInventoryService slotInventoryService;
+    
+    @Autowired
+    private SlotHoldService slotHoldService;
+    
+    @Autowired
+    private DashboardStatsService dashboardStatsService;
+    
+    @Value("${booking.mode:database}")
+    private BookingMode bookingMode;
+    
+    private static final int MAX_FEED_SIZE = 100;
+    
     @Override
     public OrderVerificationResponse getOrderForVerification(Long orderId) {
         Order order = orderRepository.findById(orderId).orElse(null);
@@ -60,31 +91,7 @@ public class OrderServiceImpl implements OrderService {
             return null;
         }
         
-        // 构建用户信息
-        OrderVerificationResponse.UserInfo userInfo = new OrderVerificationResponse.UserInfo(
-                user.getUsername(),
-                user.getPhone()
-        );
-        
-        // 构建所有场次信息
-        List<OrderVerificationResponse.SessionInfo> sessionInfos = orderSessions.stream()
-                .map(orderSession -> new OrderVerificationResponse.SessionInfo(
-                        orderSession.getCourtName(),
-                        orderSession.getStartTime(),
-                        orderSession.getPrice()
-                ))
-                .toList();
-        
-        // 构建响应对象
-        return new OrderVerificationResponse(
-                orderId.toString(), // 使用订单ID作为订单号
-                order.getTotalPrice(),
-                order.getCreateTime(),
-                order.getVerifyTime(),
-                order.getStatus().name(),
-                userInfo,
-                sessionInfos
-        );
+        return toResponse(order, user, orderSessions);
     }
     
     @Override
@@ -102,112 +109,140 @@ public class OrderServiceImpl implements OrderService {
         order.setStatus(Order.OrderStatus.completed);
         order.setVerifyTime(LocalDateTime.now());
         orderRepository.save(order);
+        dashboardStatsService.recordOrderClosed();
         
         return true;
     }
     
     @Override
     public long getTotalOrders() {
-        return orderRepository.count();
+        return dashboardStatsService.getTotalOrders();
     }
     
     @Override
     public long getTodayOrders() {
-        LocalDate today = LocalDate.now();
-        LocalDateTime startOfDay = today.atStartOfDay();
-        LocalDateTime endOfDay = today.atTime(LocalTime.MAX);
-        return orderRepository.countByCreateTimeBetween(startOfDay, endOfDay);
+        return dashboardStatsService.getTodayOrders();
     }
     
     @Override
     public long getPendingVerificationOrders() {
-        return orderRepository.countByStatus(Order.OrderStatus.pending);
+        return dashboardStatsService.getPendingOrders();
     }
     
     @Override
     public List<OrderVerificationResponse> getUserOrders(Long userId) {
         List<Order> userOrders = orderRepository.findByUserIdOrderByCreateTimeDesc(userId);
-        
-        return userOrders.stream()
-                .map(order -> {
-                    User user = userRepository.findById(order.getUserId()).orElse(null);
-                    if (user == null) {
-                        return null;
-                    }
-                    
-                    List<OrderSession> orderSessions = orderSessionRepository.findByOrderId(order.getId());
-                    
-                    // 构建用户信息
-                    OrderVerificationResponse.UserInfo userInfo = new OrderVerificationResponse.UserInfo(
-                            user.getUsername(),
-                            user.getPhone()
-                    );
-                    
-                    // 构建所有场次信息
-                    List<OrderVerificationResponse.SessionInfo> sessionInfos = orderSessions.stream()
-                            .map(orderSession -> new OrderVerificationResponse.SessionInfo(
-                                    orderSession.getCourtName(),
-                                    orderSession.getStartTime(),
-                                    orderSession.getPrice()
-                            ))
-                            .toList();
-                    
-                    // 构建响应对象
-                    return new OrderVerificationResponse(
-                            order.getId().toString(),
-                            order.getTotalPrice(),
-                            order.getCreateTime(),
-                            order.getVerifyTime(),
-                            order.getStatus().name(),
-                            userInfo,
-                            sessionInfos
-                    );
-                })
-                .filter(Objects::nonNull)
-                .toList();
+        return buildOrderResponses(userOrders);
     }
     
     @Override
     public Page<OrderVerificationResponse> getUserOrders(Long userId, int page, int size) {
         Pageable pageable = org.springframework.data.domain.PageRequest.of(page, size);
         Page<Order> userOrdersPage = orderRepository.findByUserIdOrderByCreateTimeDesc(userId, pageable);
-
-        Page<OrderVerificationResponse> responsePage = userOrdersPage.map(order -> {
-            User user = userRepository.findById(order.getUserId()).orElse(null);
+        
+        return new PageImpl<>(buildOrderResponses(userOrdersPage.getContent()), pageable,
+                userOrdersPage.getTotalElements());
+    }
+    
+    @Override
+    public CursorPage<OrderVerificationResponse> getUserOrderFeed(Long userId, String cursor, int size, boolean withTotal) {
+        int limit = clampFeedSize(size);
+        FeedCursor position = FeedCursor.decode(cursor);
+        Pageable fetch = PageRequest.of(0, limit + 1);
+        List<Order> orders = position == null
+                ? orderRepository.findUserOrderFeed(userId, fetch)
+                : orderRepository.findUserOrderFeedAfter(userId, position.createTime(), position.id(), fetch);
+        return toCursorPage(orders, limit, withTotal ? orderRepository.countByUserId(userId) : null);
+    }
+    
+    @Override
+    public CursorPage<OrderVerificationResponse> getOrderFeed(String cursor, int size, boolean withTotal) {
+        int limit = clampFeedSize(size);
+        FeedCursor position = FeedCursor.decode(cursor);
+        Pageable fetch = PageRequest.of(0, limit + 1);
+        List<Order> orders = position == null
+                ? orderRepository.findOrderFeed(fetch)
+                : orderRepository.findOrderFeedAfter(position.createTime(), position.id(), fetch);
+        return toCursorPage(orders, limit, withTotal ? orderRepository.count() : null);
+    }
+    
+    private int clampFeedSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_FEED_SIZE);
+    }
+    
+    /**
+     * 多查询一条用于判断是否还有下一页，游标指向本页最后一条订单
+     */
+    private CursorPage<OrderVerificationResponse> toCursorPage(List<Order> orders, int limit, Long total) {
+        boolean hasMore = orders.size() > limit;
+        List<Order> pageOrders = hasMore ? orders.subList(0, limit) : orders;
+        String nextCursor = null;
+        if (hasMore) {
+            Order last = pageOrders.get(pageOrders.size() - 1);
+            nextCursor = new FeedCursor(last.getCreateTime(), last.getId()).encode();
+        }
+        return new CursorPage<>(buildOrderResponses(pageOrders), nextCursor, hasMore, total);
+    }
+    
+    /**
+     * 批量构建订单响应：用户和订单场次各一次查询，在内存中按订单分组，不产生逐行查询
+     */
+    private List<OrderVerificationResponse> buildOrderResponses(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+        
+        Set<Long> userIds = new HashSet<>();
+        List<Long> orderIds = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            userIds.add(order.getUserId());
+            orderIds.add(order.getId());
+        }
+        
+        Map<Long, User> usersById = new HashMap<>();
+        for (User user : userRepository.findAllById(userIds)) {
+            usersById.put(user.getId(), user);
+        }
+        Map<Long, List<OrderSession>> sessionsByOrderId = orderSessionRepository.findByOrderIdIn(orderIds).stream()
+                .collect(Collectors.groupingBy(OrderSession::getOrderId));
+        
+        List<OrderVerificationResponse> responses = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            User user = usersById.get(order.getUserId());
             if (user == null) {
-                return null;
+                continue;
             }
-
-            List<OrderSession> orderSessions = orderSessionRepository.findByOrderId(order.getId());
-
-            // 构建用户信息
-            OrderVerificationResponse.UserInfo userInfo = new OrderVerificationResponse.UserInfo(
-                    user.getUsername(),
-                    user.getPhone()
-            );
-
-            // 构建所有场次信息
-            List<OrderVerificationResponse.SessionInfo> sessionInfos = orderSessions.stream()
-                    .map(orderSession -> new OrderVerificationResponse.SessionInfo(
-                            orderSession.getCourtName(),
-                            orderSession.getStartTime(),
-                            orderSession.getPrice()
-                    ))
-                    .toList();
-
-            // 构建响应对象
-            return new OrderVerificationResponse(
-                    order.getId().toString(),
-                    order.getTotalPrice(),
-                    order.getCreateTime(),
-                    order.getVerifyTime(),
-                    order.getStatus().name(),
-                    userInfo,
-                    sessionInfos
-            );
-        });
-
-        return responsePage;
+            responses.add(toResponse(order, user, sessionsByOrderId.getOrDefault(order.getId(), List.of())));
+        }
+        return responses;
+    }
+    
+    private OrderVerificationResponse toResponse(Order order, User user, List<OrderSession> orderSessions) {
+        // 构建用户信息
+        OrderVerificationResponse.UserInfo userInfo = new OrderVerificationResponse.UserInfo(
+                user.getUsername(),
+                user.getPhone()
+        );
+        
+        // 构建所有场次信息
+        List<OrderVerificationResponse.SessionInfo> sessionInfos = orderSessions.stream()
+                .map(orderSession -> new OrderVerificationResponse.SessionInfo(
+                        orderSession.getCourtName(),
+                        orderSession.getStartTime(),
+                        orderSession.getPrice()
+                ))
+                .toList();
+        
+        // 构建响应对象
+        return new OrderVerificationResponse(
+                order.getId().toString(), // 使用订单ID作为订单号
+                order.getTotalPrice(),
+                order.getCreateTime(),
+                order.getVerifyTime(),
+                order.getStatus().name(),
+                userInfo,
+                sessionInfos
+        );
     }
     
     @Override
@@ -235,15 +270,7 @@ public class OrderServiceImpl implements OrderService {
         }
         
         // 检查退订时间限制
-        String cancelTimeLimitStr = systemConfigService.getConfigValue("cancel_time_limit");
-        int cancelTimeLimit = 4; // 默认4小时
-        if (cancelTimeLimitStr != null) {
-            try {
-                cancelTimeLimit = Integer.parseInt(cancelTimeLimitStr);
-            } catch (NumberFormatException e) {
-                // 使用默认值
-            }
-        }
+        int cancelTimeLimit = systemConfigService.getSnapshot().cancelTimeLimit();
         
         LocalDateTime now = LocalDateTime.now();
         
@@ -259,15 +286,39 @@ public class OrderServiceImpl implements OrderService {
                 } else {
                     errorMessage = "距场次开始时间不足 " + cancelTimeLimit + " 小时，无法取消订单";
                 }
-                throw new RuntimeException(errorMessage);
+                throw new BusinessException(ResultCode.ORDER_CANCEL_TIME_LIMIT, errorMessage);
             }
         }
         
         // 取消订单，将场次标记为可预订
         order.setStatus(Order.OrderStatus.cancelled);
         orderRepository.save(order);
+        dashboardStatsService.recordOrderClosed();
         
         // 将相关场次标记为可预订
+        if (bookingMode == BookingMode.INVENTORY && slotInventoryService.isReady()) {
+            List<Long> sessionIds = new ArrayList<>();
+            for (OrderSession orderSession : orderSessions) {
+                Long sessionId = slotInventoryService.findSessionId(orderSession.getCourtName(), orderSession.getStartTime());
+                if (sessionId != null) {
+                    sessionIds.add(sessionId);
+                } else {
+                    // 库存中没有的场次（如加载前的场次）直接按场地和时间释放数据库中的场次
+                    sessionService.releaseSession(orderSession.getCourtName(), orderSession.getStartTime());
+                }
+            }
+            if (!sessionIds.isEmpty()) {
+                sessionService.updateBookedStatus(sessionIds, false);
+            }
+            return true;
+        }
+        if (bookingMode == BookingMode.CONDITIONAL) {
+            for (OrderSession orderSession : orderSessions) {
+                sessionService.releaseSession(orderSession.getCourtName(), orderSession.getStartTime());
+            }
+            return true;
+        }
+        
         for (OrderSession orderSession : orderSessions) {
             Session session = sessionService.getSessionByCourtNameAndStartTime(
                 orderSession.getCourtName(), 
@@ -285,55 +336,102 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional
     public Order createOrder(Long userId, List<Long> sessionIds) {
-        // 验证用户是否存在
-        User user = userRepository.findById(userId).orElse(null);
-        if (user == null) {
-            throw new RuntimeException("用户不存在");
+        checkInventoryReady();
+        checkOrderAllowed(userId, sessionIds.size());
+        
+        // 占用场次（校验场次存在、可预订、未过期）
+        List<Session> sessions = claimSessions(sessionIds);
+        
+        return saveOrder(userId, sessions);
+    }
+    
+    @Override
+    @Transactional
+    public SlotHold holdSessions(Long userId, List<Long> sessionIds) {
+        checkInventoryReady();
+        checkOrderAllowed(userId, sessionIds.size());
+        slotHoldService.reserve(userId);
+        TransactionUtils.afterRollback(() -> slotHoldService.abandon(userId));
+        
+        Set<Long> distinctIds = new LinkedHashSet<>(sessionIds);
+        if (distinctIds.size() != sessionIds.size()) {
+            throw new BusinessException(ResultCode.DUPLICATE_DATA, "场次重复");
         }
         
-        // 验证场次是否存在且可预订
-        List<Session> sessions = new ArrayList<>();
-        BigDecimal totalPrice = BigDecimal.ZERO;
         LocalDateTime now = LocalDateTime.now();
+        LocalDateTime holdUntil = slotHoldService.nextHoldUntil(now);
+        if (bookingMode == BookingMode.INVENTORY) {
+            List<Session> claimed = slotInventoryService.claim(sessionIds, now);
+            TransactionUtils.afterRollback(() -> slotInventoryService.release(claimed));
+        }
+        if (!sessionService.holdSessions(distinctIds, now, holdUntil)) {
+            throw new BusinessException(ResultCode.ORDER_SESSION_UNAVAILABLE, "订单包含不可预订的场次（已被预订、未开放或已过期）");
+        }
         
-        for (Long sessionId : sessionIds) {
-            Session session = sessionService.getSessionById(sessionId);
-            if (session == null) {
-                throw new RuntimeException("场次不存在: " + sessionId);
-            }
-            if (session.getIsBooked()) {
-                throw new RuntimeException("场次已被预订: " + session.getCourtName() + " " + session.getStartTime());
-            }
-            if (!session.getIsActive()) {
-                throw new RuntimeException("场次不可预订: " + session.getCourtName() + " " + session.getStartTime());
-            }
-            // 检查场次是否已过期
-            if (session.getStartTime().isBefore(now)) {
-                throw new RuntimeException("场次已过期: " + session.getCourtName() + " " + session.getStartTime());
-            }
-            sessions.add(session);
-            totalPrice = totalPrice.add(session.getPrice());
+        return slotHoldService.register(userId, sessionService.getSessionsByIds(distinctIds), holdUntil);
+    }
+    
+    @Override
+    @Transactional
+    public Order confirmHold(Long userId, String holdId) {
+        checkInventoryReady();
+        SlotHold hold = slotHoldService.take(holdId, userId);
+        TransactionUtils.afterRollback(() -> slotHoldService.restore(userId, hold));
+        
+        checkOrderAllowed(userId, hold.getSessionIds().size());
+        if (!sessionService.confirmHold(hold.getSessionIds(), hold.getExpireTime())) {
+            throw new BusinessException(ResultCode.SESSION_EXPIRED, "预留已过期，请重新选择场次");
         }
         
-        // 检查订单场次数限制
-        String maxOrderSessionsStr = systemConfigService.getConfigValue("max_order_sessions");
-        int maxOrderSessions = 3; // 默认值
-        if (maxOrderSessionsStr != null) {
-            try {
-                maxOrderSessions = Integer.parseInt(maxOrderSessionsStr);
-            } catch (NumberFormatException e) {
-                // 使用默认值
-            }
+        return saveOrder(userId, sessionService.getSessionsByIds(hold.getSessionIds()));
+    }
+    
+    @Override
+    public void cancelHold(Long userId, String holdId) {
+        slotHoldService.cancel(holdId, userId);
+    }
+    
+    /**
+     * inventory 模式下库存加载完成前拒绝预订，不退回到逐个场次读取再更新的方式：
+     * 加载期间提交的预订可能被加载结果覆盖为可预订
+     */
+    private void checkInventoryReady() {
+        if (bookingMode == BookingMode.INVENTORY && !slotInventoryService.isReady()) {
+            throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE, "场次库存正在加载，请稍后重试");
+        }
+    }
+    
+    /**
+     * 下单前校验：用户存在、场次数未超过限制、没有未核验的订单
+     */
+    private void checkOrderAllowed(Long userId, int sessionCount) {
+        // 验证用户是否存在
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null) {
+            throw new BusinessException(ResultCode.USER_NOT_FOUND, "用户不存在");
         }
         
-        if (sessionIds.size() > maxOrderSessions) {
-            throw new RuntimeException("订单场次数超过限制，最多可预订 " + maxOrderSessions + " 个场次");
+        // 检查订单场次数限制
+        int maxOrderSessions = systemConfigService.getSnapshot().maxOrderSessions();
+        
+        if (sessionCount > maxOrderSessions) {
+            throw new BusinessException(ResultCode.ORDER_EXCEED_MAX_SESSIONS, "订单场次数超过限制，最多可预订 " + maxOrderSessions + " 个场次");
         }
         
         // 检查用户是否有未核验的订单
         List<Order> pendingOrders = orderRepository.findByUserIdAndStatusOrderByCreateTimeDesc(userId, Order.OrderStatus.pending);
         if (!pendingOrders.isEmpty()) {
-            throw new RuntimeException("您有未核验的订单，请等待核验完成后再预订");
+            throw new BusinessException(ResultCode.ORDER_HAS_UNVERIFIED_ORDERS, "您有未核验的订单，请等待核验完成后再预订");
+        }
+    }
+    
+    /**
+     * 保存订单及场次快照（场次已被占用）
+     */
+    private Order saveOrder(Long userId, List<Session> sessions) {
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        for (Session session : sessions) {
+            totalPrice = totalPrice.add(session.getPrice());
         }
         
         // 创建订单
@@ -344,6 +442,7 @@ public class OrderServiceImpl implements OrderService {
         order.setStatus(Order.OrderStatus.pending);
         
         Order savedOrder = orderRepository.save(order);
+        dashboardStatsService.recordOrderCreated(savedOrder.getCreateTime());
         
         // 创建订单场次快照
         List<OrderSession> orderSessions = new ArrayList<>();
@@ -354,14 +453,91 @@ public class OrderServiceImpl implements OrderService {
             orderSession.setStartTime(session.getStartTime());
             orderSession.setPrice(session.getPrice());
             orderSessions.add(orderSession);
-            
-            // 标记场次为已预订
-            session.setIsBooked(true);
-            sessionService.updateSession(session.getId(), session);
         }
         
         orderSessionRepository.saveAll(orderSessions);
         
         return savedOrder;
     }
+    
+    /**
+     * 按当前预订模式占用场次，返回场次快照
+     */
+    private List<Session> claimSessions(List<Long> sessionIds) {
+        if (bookingMode == BookingMode.INVENTORY) {
+            // 内存库存判定，数据库条件写回结果；事务回滚时归还占用
+            LocalDateTime now = LocalDateTime.now();
+            List<Session> sessions = slotInventoryService.claim(sessionIds, now);
+            TransactionUtils.afterRollback(() -> slotInventoryService.release(sessions));
+            if (!sessionService.bookSessions(sessionIds, now)) {
+                // 库存登记后场次已被删除、归档或修改，数据库中的场次不可预订
+                throw new BusinessException(ResultCode.SESSION_UNAVAILABLE, "场次已不可预订，请刷新后重试");
+            }
+            return sessions;
+        }
+        if (bookingMode == BookingMode.CONDITIONAL) {
+            // 单条条件更新占用全部场次，数量不符时整体回滚
+            Set<Long> distinctIds = new LinkedHashSet<>(sessionIds);
+            List<Session> claimed = distinctIds.size() == sessionIds.size()
+                    ? sessionService.claimSessions(distinctIds, LocalDateTime.now()) : null;
+            if (claimed == null) {
+                throw new BusinessException(ResultCode.ORDER_SESSION_UNAVAILABLE, "订单包含不可预订的场次（已被预订、未开放或已过期）");
+            }
+            return claimed;
+        }
+        
+        List<Session> sessions = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        
+        for (Long sessionId : sessionIds) {
+            Session session = sessionService.getSessionById(sessionId);
+            if (session == null) {
+                throw new BusinessException(ResultCode.SESSION_NOT_FOUND, "场次不存在: " + sessionId);
+            }
+            if (session.getIsBooked()) {
+                throw new BusinessException(ResultCode.SESSION_ALREADY_BOOKED, "场次已被预订: " + session.getCourtName() + " " + session.getStartTime());
+            }
+            if (!session.getIsActive()) {
+                throw new BusinessException(ResultCode.SESSION_UNAVAILABLE, "场次不可预订: " + session.getCourtName() + " " + session.getStartTime());
+            }
+            // 检查场次是否已过期
+            if (session.getStartTime().isBefore(now)) {
+                throw new BusinessException(ResultCode.SESSION_EXPIRED, "场次已过期: " + session.getCourtName() + " " + session.getStartTime());
+            }
+            sessions.add(session);
+        }
+        
+        // 标记场次为已预订
+        for (Session session : sessions) {
+            session.setIsBooked(true);
+            sessionService.updateSession(session.getId(), session);
+        }
+        
+        return sessions;
+    }
+    
+    /**
+     * 订单分页游标：(下单时间, 订单ID)，以Base64URL编码后对客户端不透明
+     */
+    private record FeedCursor(LocalDateTime createTime, Long id) {
+        
+        String encode() {
+            String raw = createTime + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        static FeedCursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new FeedCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new BusinessException(ResultCode.PARAMETER_INVALID, "无效的分页游标");
+            }
+        }
+    }
 } 
\ No newline at end of file
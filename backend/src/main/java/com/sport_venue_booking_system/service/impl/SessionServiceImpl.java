@@ -1,20 +1,43 @@
 package com.sport_venue_booking_system.service.impl;
 
+import com.sport_venue_booking_system.dto.SessionDaySnapshot;
+import com.sport_venue_booking_system.dto.SessionGrid;
+import com.sport_venue_booking_system.dto.SlotChange;
+import com.sport_venue_booking_system.dto.TemplatePropagation;
 import com.sport_venue_booking_system.entity.Session;
 import com.sport_venue_booking_system.entity.SessionTemplate;
 import com.sport_venue_booking_system.repository.SessionRepository;
 import com.sport_venue_booking_system.repository.SessionTemplateRepository;
+import com.sport_venue_booking_system.event.SessionChangedEvent;
+import com.sport_venue_booking_system.service.SessionArchiveService;
+import com.sport_venue_booking_system.service.SessionDayCache;
 import com.sport_venue_booking_system.service.SessionService;
+import com.sport_venue_booking_system.service.SlotInventoryService;
+import com.sport_venue_booking_system.utils.TransactionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @Service
 public class SessionServiceImpl implements SessionService {
@@ -27,6 +50,26 @@ public class SessionServiceImpl implements SessionService {
     @Autowired
     private SessionTemplateRepository sessionTemplateRepository;
     
+    @Autowired
+    private SlotInventoryService slotInventoryService;
+    
+    @Autowired
+    private SessionDayCache sessionDayCache;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private SessionArchiveService sessionArchiveService;
+    
+    private static final String INSERT_SESSION_SQL =
+            "INSERT INTO session (court_name, start_time, price, is_active, is_booked, note) VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE id = id";
+    private static final int INSERT_BATCH_SIZE = 500;
+    
     @Override
     public List<Session> getAllSessions() {
         return sessionRepository.findAll();
@@ -62,6 +105,27 @@ public class SessionServiceImpl implements SessionService {
         return sessionRepository.findByStartTimeBetweenAndIsBookedFalseAndIsActiveTrueOrderByStartTime(start, end);
     }
     
+    @Override
+    public SessionDaySnapshot getSessionsByDate(LocalDate date) {
+        return sessionDayCache.get(date, false);
+    }
+    
+    @Override
+    public SessionDaySnapshot getAvailableSessionsByDate(LocalDate date) {
+        return sessionDayCache.get(date, true);
+    }
+    
+    @Override
+    public SessionGrid getSessionGrid(LocalDate date) {
+        SessionDaySnapshot snapshot = sessionDayCache.get(date, false);
+        SessionGrid grid = snapshot.getGrid();
+        if (grid == null) {
+            grid = buildGrid(snapshot);
+            snapshot.setGrid(grid);
+        }
+        return grid;
+    }
+    
     @Override
     @Transactional
     public Session createSession(Session session) {
@@ -69,7 +133,10 @@ public class SessionServiceImpl implements SessionService {
         if (sessionRepository.existsByCourtNameAndStartTime(session.getCourtName(), session.getStartTime())) {
             throw new RuntimeException("该场地和时间段已存在场次");
         }
-        return sessionRepository.save(session);
+        Session savedSession = sessionRepository.save(session);
+        TransactionUtils.afterCommit(() -> slotInventoryService.register(savedSession));
+        publishChanges(List.of(SlotChange.of(savedSession)));
+        return savedSession;
     }
     
     @Override
@@ -86,6 +153,10 @@ public class SessionServiceImpl implements SessionService {
             }
         }
         
+        // 场地或时间变化时，原场次位置视为删除
+        SlotChange previous = SlotChange.removed(existingSession);
+        boolean bookedChanged = !Objects.equals(existingSession.getIsBooked(), session.getIsBooked());
+        
         existingSession.setCourtName(session.getCourtName());
         existingSession.setStartTime(session.getStartTime());
         existingSession.setPrice(session.getPrice());
@@ -93,16 +164,33 @@ public class SessionServiceImpl implements SessionService {
         existingSession.setIsBooked(session.getIsBooked());
         existingSession.setNote(session.getNote());
         
-        return sessionRepository.save(existingSession);
+        Session savedSession = sessionRepository.save(existingSession);
+        // 库存登记只更新场次信息，预订状态的修改单独同步
+        boolean booked = Boolean.TRUE.equals(savedSession.getIsBooked());
+        TransactionUtils.afterCommit(() -> {
+            slotInventoryService.register(savedSession);
+            if (bookedChanged) {
+                slotInventoryService.setBooked(id, booked);
+            }
+        });
+        List<SlotChange> changes = new ArrayList<>();
+        if (!previous.getCourtName().equals(savedSession.getCourtName())
+                || !previous.getStartTime().equals(savedSession.getStartTime())) {
+            changes.add(previous);
+        }
+        changes.add(SlotChange.of(savedSession));
+        publishChanges(changes);
+        return savedSession;
     }
     
     @Override
     @Transactional
     public void deleteSession(Long id) {
-        if (!sessionRepository.existsById(id)) {
-            throw new RuntimeException("场次不存在");
-        }
-        sessionRepository.deleteById(id);
+        Session session = sessionRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("场次不存在"));
+        sessionRepository.delete(session);
+        TransactionUtils.afterCommit(() -> slotInventoryService.unregister(id));
+        publishChanges(List.of(SlotChange.removed(session)));
     }
     
     @Override
@@ -111,7 +199,10 @@ public class SessionServiceImpl implements SessionService {
         Session session = sessionRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("场次不存在"));
         session.setIsBooked(true);
-        return sessionRepository.save(session);
+        Session savedSession = sessionRepository.save(session);
+        TransactionUtils.afterCommit(() -> slotInventoryService.setBooked(id, true));
+        publishChanges(List.of(SlotChange.of(savedSession)));
+        return savedSession;
     }
     
     @Override
@@ -120,7 +211,110 @@ public class SessionServiceImpl implements SessionService {
         Session session = sessionRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("场次不存在"));
         session.setIsBooked(false);
-        return sessionRepository.save(session);
+        Session savedSession = sessionRepository.save(session);
+        TransactionUtils.afterCommit(() -> slotInventoryService.setBooked(id, false));
+        publishChanges(List.of(SlotChange.of(savedSession)));
+        return savedSession;
+    }
+    
+    @Override
+    @Transactional
+    public int updateBookedStatus(List<Long> ids, boolean booked) {
+        int updated = sessionRepository.updateBookedStatus(ids, booked);
+        TransactionUtils.afterCommit(() -> ids.forEach(id -> slotInventoryService.setBooked(id, booked)));
+        publishChangesByIds(ids);
+        return updated;
+    }
+    
+    @Override
+    @Transactional
+    public boolean bookSessions(Collection<Long> ids, LocalDateTime now) {
+        int booked = sessionRepository.claimSessions(ids, now);
+        if (booked != ids.size()) {
+            logger.warn("写回库存占用失败，请求 {} 个，实际更新 {} 个", ids.size(), booked);
+            return false;
+        }
+        TransactionUtils.afterCommit(() -> ids.forEach(id -> slotInventoryService.setBooked(id, true)));
+        publishChangesByIds(ids);
+        return true;
+    }
+    
+    @Override
+    @Transactional
+    public List<Session> claimSessions(Collection<Long> ids, LocalDateTime now) {
+        int claimed = sessionRepository.claimSessions(ids, now);
+        if (claimed != ids.size()) {
+            logger.debug("条件占用场次失败，请求 {} 个，实际占用 {} 个", ids.size(), claimed);
+            return null;
+        }
+        TransactionUtils.afterCommit(() -> ids.forEach(id -> slotInventoryService.setBooked(id, true)));
+        // 同一次查询得到的场次既返回给订单，也用于发布变化，不再单独查询变化后的状态
+        List<Session> sessions = sessionRepository.findAllById(ids);
+        List<SlotChange> changes = new ArrayList<>(sessions.size());
+        for (Session session : sessions) {
+            // 持久化上下文中可能是条件更新前加载的场次
+            SlotChange change = SlotChange.of(session);
+            change.setIsBooked(true);
+            changes.add(change);
+        }
+        publishChanges(changes);
+        return sessions;
+    }
+    
+    @Override
+    @Transactional
+    public boolean releaseSession(String courtName, LocalDateTime startTime) {
+        boolean released = sessionRepository.releaseSession(courtName, startTime) > 0;
+        if (released) {
+            TransactionUtils.afterCommit(() -> slotInventoryService.setBooked(courtName, startTime, false));
+            publishChanges(sessionRepository.findSlotChanges(courtName, startTime));
+        }
+        return released;
+    }
+    
+    @Override
+    public List<Session> getSessionsByIds(Collection<Long> ids) {
+        return sessionRepository.findAllById(ids);
+    }
+    
+    @Override
+    @Transactional
+    public boolean holdSessions(Collection<Long> ids, LocalDateTime now, LocalDateTime holdUntil) {
+        int held = sessionRepository.holdSessions(ids, now, holdUntil);
+        if (held != ids.size()) {
+            logger.debug("预留场次失败，请求 {} 个，实际预留 {} 个", ids.size(), held);
+            return false;
+        }
+        TransactionUtils.afterCommit(() -> ids.forEach(id -> slotInventoryService.setBooked(id, true)));
+        publishChangesByIds(ids);
+        return true;
+    }
+    
+    @Override
+    @Transactional
+    public boolean confirmHold(Collection<Long> ids, LocalDateTime holdUntil) {
+        return sessionRepository.confirmHold(ids, holdUntil) == ids.size();
+    }
+    
+    @Override
+    @Transactional
+    public int releaseHold(Collection<Long> ids, LocalDateTime holdUntil) {
+        int released = sessionRepository.releaseHold(ids, holdUntil);
+        if (released > 0) {
+            TransactionUtils.afterCommit(() -> ids.forEach(id -> slotInventoryService.setBooked(id, false)));
+            publishChangesByIds(ids);
+        }
+        return released;
+    }
+    
+    @Override
+    public List<Session> getHeldSessions() {
+        return sessionRepository.findByHoldUntilIsNotNull();
+    }
+    
+    @Override
+    public List<String> getCourtNames(Collection<Long> ids) {
+        return sessionRepository.findCourtNamesByIdIn(ids);
     }
     
     @Override
@@ -136,36 +330,10 @@ public class SessionServiceImpl implements SessionService {
                 return false;
             }
             
-            // 计算次日日期
-            LocalDate tomorrow = LocalDate.now().plusDays(1);
-            List<Session> newSessions = new ArrayList<>();
-            
-            // 根据模板生成场次（包括不激活的模板）
-            for (SessionTemplate template : templates) {
-                LocalDateTime sessionStartTime = LocalDateTime.of(tomorrow, template.getStartTime());
-                
-                // 检查是否已存在该场次
-                if (!sessionRepository.existsByCourtNameAndStartTime(template.getCourtName(), sessionStartTime)) {
-                    Session session = new Session();
-                    session.setCourtName(template.getCourtName());
-                    session.setStartTime(sessionStartTime);
-                    session.setPrice(template.getPrice());
-                    session.setIsActive(template.getIsActive()); // 保持模板的激活状态
-                    session.setIsBooked(false);
-                    session.setNote(template.getNote()); // 保留备注信息
-                    
-                    newSessions.add(session);
-                }
-            }
-            
-            // 批量保存场次
-            if (!newSessions.isEmpty()) {
-                sessionRepository.saveAll(newSessions);
-                logger.info("成功生成 {} 个次日场次", newSessions.size());
-            } else {
+            int generated = generateSessions(LocalDate.now().plusDays(1), templates);
+            if (generated == 0) {
                 logger.info("次日场次已存在，无需重复生成");
             }
-            
             return true;
             
         } catch (Exception e) {
@@ -176,36 +344,255 @@ public class SessionServiceImpl implements SessionService {
     
     @Override
     @Transactional
+    public int generateSessionsForDate(LocalDate date, List<SessionTemplate> templates) {
+        return generateSessions(date, templates);
+    }
+    
+    @Override
+    public Map<LocalDate, Long> countSessionsByDate(LocalDate from, LocalDate to) {
+        Map<LocalDate, Long> counts = new TreeMap<>();
+        for (Object[] row : sessionRepository.countSessionsPerDay(from.atStartOfDay(), to.atStartOfDay())) {
+            LocalDate day = row[0] instanceof java.sql.Date sqlDate ? sqlDate.toLocalDate() : (LocalDate) row[0];
+            counts.put(day, ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+    
+    @Override
+    @Transactional
+    public TemplatePropagation propagateTemplate(SessionTemplate before, SessionTemplate after, boolean apply) {
+        LocalDateTime now = LocalDateTime.now();
+        TemplatePropagation result = new TemplatePropagation();
+        result.setTemplate(after);
+        boolean moved = before != null && after != null && (!before.getCourtName().equals(after.getCourtName())
+                || !before.getStartTime().equals(after.getStartTime()));
+        result.setChangeType(before == null ? "create" : after == null ? "delete" : moved ? "move" : "update");
+        
+        // 原位置的场次：删除模板或移动到其他场地/时刻时删除仍与模板原值相同的场次，否则逐项比较需要修改的字段；
+        // 只删除或修改仍与模板原值相同的场次/字段，单独修改过的场次保持不变
+        List<Session> current = before != null
+                ? sessionRepository.findUnbookedByTemplate(before.getCourtName(), before.getStartTime(), now)
+                : List.of();
+        if (before != null) {
+            result.setBookedSkipped(sessionRepository.countBookedByTemplate(before.getCourtName(), before.getStartTime(), now));
+        }
+        if (before != null && (after == null || moved)) {
+            int matching = (int) current.stream().filter(session -> matchesTemplate(session, before)).count();
+            result.setRemovals(matching);
+            result.setEditedSkipped(current.size() - matching);
+        } else if (before != null) {
+            for (Session session : current) {
+                if (before.getPrice().compareTo(after.getPrice()) != 0
+                        && session.getPrice().compareTo(before.getPrice()) == 0) {
+                    result.setPriceUpdates(result.getPriceUpdates() + 1);
+                }
+                if (!before.getIsActive().equals(after.getIsActive())
+                        && before.getIsActive().equals(session.getIsActive())) {
+                    result.setActiveUpdates(result.getActiveUpdates() + 1);
+                }
+                if (!Objects.equals(before.getNote(), after.getNote())
+                        && Objects.equals(before.getNote(), session.getNote())) {
+                    result.setNoteUpdates(result.getNoteUpdates() + 1);
+                }
+            }
+        }
+        // 新位置：在已生成场次的日期中补充（之后的日期由可预订窗口生成）
+        LocalDateTime today = now.toLocalDate().atStartOfDay();
+        if (after != null && (before == null || moved)) {
+            result.setInsertions((int) sessionRepository.countMissingForTemplate(after.getCourtName(),
+                    after.getStartTime(), today, now));
+        }
+        if (!apply) {
+            return result;
+        }
+        result.setApplied(true);
+        if (result.getRemovals() + result.getPriceUpdates() + result.getActiveUpdates() + result.getNoteUpdates()
+                + result.getInsertions() == 0) {
+            return result;
+        }
+        
+        // 每种变化一条集合更新语句，条件中重新检查未预订，执行期间被预订的场次不会被修改
+        int appliedCount = 0;
+        List<SlotChange> changes = new ArrayList<>();
+        if (result.getRemovals() > 0) {
+            appliedCount += sessionRepository.deleteUnbookedByTemplate(before.getCourtName(), before.getStartTime(), now,
+                    before.getPrice(), before.getIsActive(), before.getNote());
+            List<Long> ids = current.stream().map(Session::getId).toList();
+            Set<Long> remaining = sessionRepository.findAllById(ids).stream()
+                    .map(Session::getId).collect(Collectors.toSet());
+            List<Session> removed = current.stream().filter(session -> !remaining.contains(session.getId())).toList();
+            TransactionUtils.afterCommit(() -> removed.forEach(session -> slotInventoryService.unregister(session.getId())));
+            removed.forEach(session -> changes.add(SlotChange.removed(session)));
+        } else if (before != null) {
+            if (result.getPriceUpdates() > 0) {
+                appliedCount += sessionRepository.updatePriceByTemplate(after.getCourtName(), after.getStartTime(),
+                        now, before.getPrice(), after.getPrice());
+            }
+            if (result.getActiveUpdates() > 0) {
+                appliedCount += sessionRepository.updateActiveByTemplate(after.getCourtName(), after.getStartTime(),
+                        now, before.getIsActive(), after.getIsActive());
+            }
+            if (result.getNoteUpdates() > 0) {
+                appliedCount += sessionRepository.updateNoteByTemplate(after.getCourtName(), after.getStartTime(),
+                        now, before.getNote(), after.getNote());
+            }
+            // 提交后只更新库存中的场次信息，register不修改预订状态，读取后被预订的场次不会被改回可预订
+            List<Session> updated = sessionRepository.findAllById(current.stream().map(Session::getId).toList());
+            TransactionUtils.afterCommit(() -> updated.forEach(slotInventoryService::register));
+            updated.forEach(session -> changes.add(SlotChange.of(session)));
+        }
+        if (result.getInsertions() > 0) {
+            Set<Long> existing = sessionRepository.findUnbookedByTemplate(after.getCourtName(), after.getStartTime(), now)
+                    .stream().map(Session::getId).collect(Collectors.toSet());
+            sessionRepository.insertForTemplate(after.getCourtName(), after.getStartTime(), after.getPrice(),
+                    after.getIsActive(), after.getNote(), today, now);
+            List<Session> inserted = sessionRepository.findUnbookedByTemplate(after.getCourtName(), after.getStartTime(), now)
+                    .stream().filter(session -> !existing.contains(session.getId())).toList();
+            // 插入语句的影响行数包含唯一键冲突的行，以读回的新场次为准
+            appliedCount += inserted.size();
+            TransactionUtils.afterCommit(() -> inserted.forEach(slotInventoryService::register));
+            inserted.forEach(session -> changes.add(SlotChange.of(session)));
+        }
+        publishChanges(changes);
+        
+        result.setAppliedCount(appliedCount);
+        logger.info("模板 {} {} 同步到场次: 价格 {}，开放状态 {}，备注 {}，删除 {}，补充 {}，已预订跳过 {}，单独修改过跳过 {}，共修改 {} 行",
+                result.getChangeType(), after != null ? after.getCourtName() + " " + after.getStartTime()
+                        : before.getCourtName() + " " + before.getStartTime(),
+                result.getPriceUpdates(), result.getActiveUpdates(), result.getNoteUpdates(), result.getRemovals(),
+                result.getInsertions(), result.getBookedSkipped(), result.getEditedSkipped(), appliedCount);
+        return result;
+    }
+    
+    /**
+     * 场次的价格、开放状态和备注是否仍与模板相同（与删除语句的条件一致）
+     */
+    private static boolean matchesTemplate(Session session, SessionTemplate template) {
+        return session.getPrice().compareTo(template.getPrice()) == 0
+                && template.getIsActive().equals(session.getIsActive())
+                && Objects.equals(template.getNote(), session.getNote());
+    }
+    
+    /**
+     * 按模板生成指定日期的场次，返回新生成的数量
+     * 一次查询当日已存在的场次，在内存中与模板比对，缺少的场次用JDBC批量插入
+     * （连接参数rewriteBatchedStatements=true时合并为多行INSERT），
+     * 唯一键冲突的行（并发生成）被忽略
+     */
+    private int generateSessions(LocalDate date, List<SessionTemplate> templates) {
+        long startNanos = System.nanoTime();
+        LocalDateTime dayStart = date.atStartOfDay();
+        LocalDateTime dayEnd = date.plusDays(1).atStartOfDay();
+        
+        Set<String> existingKeys = new HashSet<>();
+        for (Object[] key : sessionRepository.findSlotKeysBetween(dayStart, dayEnd)) {
+            existingKeys.add(slotKey((String) key[0], (LocalDateTime) key[1]));
+        }
+        
+        // 根据模板生成场次（包括不激活的模板）
+        List<Object[]> rows = new ArrayList<>();
+        Set<String> newKeys = new HashSet<>();
+        for (SessionTemplate template : templates) {
+            LocalDateTime sessionStartTime = LocalDateTime.of(date, template.getStartTime());
+            String key = slotKey(template.getCourtName(), sessionStartTime);
+            if (!existingKeys.contains(key) && newKeys.add(key)) {
+                rows.add(new Object[]{template.getCourtName(), Timestamp.valueOf(sessionStartTime), template.getPrice(),
+                        template.getIsActive(), false, template.getNote()});
+            }
+        }
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        
+        jdbcTemplate.batchUpdate(INSERT_SESSION_SQL, rows, INSERT_BATCH_SIZE, (ps, row) -> {
+            for (int i = 0; i < row.length; i++) {
+                ps.setObject(i + 1, row[i]);
+            }
+        });
+        
+        // 读回新场次（带自增ID），同步到内存库存并发布场次变化
+        List<Session> savedSessions = sessionRepository.findByStartTimeBetweenOrderByStartTime(dayStart, dayEnd).stream()
+                .filter(session -> newKeys.contains(slotKey(session.getCourtName(), session.getStartTime())))
+                .toList();
+        TransactionUtils.afterCommit(() -> savedSessions.forEach(slotInventoryService::register));
+        publishChanges(savedSessions.stream().map(SlotChange::of).toList());
+        
+        int inserted = savedSessions.size();
+        long elapsedMillis = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+        logger.info("成功生成 {} 的场次 {} 个，用时 {} ms（{} 行/秒）", date, inserted, elapsedMillis,
+                inserted * 1000L / elapsedMillis);
+        return inserted;
+    }
+    
+    private static String slotKey(String courtName, LocalDateTime startTime) {
+        return courtName + "|" + startTime;
+    }
+    
+    @Override
     public void clearExpiredSessions() {
         try {
             // 获取当天开始时间（00:00:00）
             LocalDateTime todayStart = LocalDate.now().atStartOfDay();
-            sessionRepository.deleteExpiredSessions(todayStart);
-            logger.info("已清除早于 {} 的过期场次", todayStart);
-        } catch (Exception e) {
+            // 分块归档到场次历史表，每块独立提交，不在一个事务中
+            long archived = sessionArchiveService.archiveBefore(todayStart);
+            TransactionUtils.afterCommit(() -> slotInventoryService.evictBefore(todayStart.toLocalDate()));
+            eventPublisher.publishEvent(SessionChangedEvent.expired(todayStart.toLocalDate()));
+            logger.info("已清除早于 {} 的过期场次 {} 个", todayStart, archived);
+        } catch (RuntimeException e) {
+            // 抛给调用方：定时任务据此不记录本次执行成功，由整点补齐重试
             logger.error("清除过期场次失败: {}", e.getMessage(), e);
+            throw e;
         }
     }
     
-    @Override
-    public boolean isSessionTableEmpty() {
-        return sessionRepository.count() == 0;
-    }
-    
-    @Override
-    @Transactional
-    public void initializeSessionsIfEmpty() {
-        logger.info("开始初始化场次（直接生成，跳过已存在的场次）...");
+    /**
+     * 由当日场次列表生成场地×小时矩阵
+     */
+    private static SessionGrid buildGrid(SessionDaySnapshot snapshot) {
+        List<Session> sessions = snapshot.getSessions();
+        List<String> courts = sessions.stream().map(Session::getCourtName).distinct().sorted().toList();
+        List<Integer> hours = sessions.stream().map(s -> s.getStartTime().getHour()).distinct().sorted().toList();
+        List<BigDecimal> prices = sessions.stream().map(Session::getPrice).distinct().sorted().toList();
         
-        // 清除过期场次
-        clearExpiredSessions();
+        int cells = courts.size() * hours.size();
+        byte[] active = new byte[(cells + 7) / 8];
+        byte[] booked = new byte[(cells + 7) / 8];
+        byte[] priceIndex = new byte[cells];
+        long[] sessionIds = new long[cells];
+        Arrays.fill(priceIndex, (byte) 0xFF);
+        for (Session session : sessions) {
+            int cell = Collections.binarySearch(courts, session.getCourtName()) * hours.size()
+                    + Collections.binarySearch(hours, session.getStartTime().getHour());
+            if (Boolean.TRUE.equals(session.getIsActive())) {
+                active[cell >> 3] |= (byte) (1 << (cell & 7));
+            }
+            if (Boolean.TRUE.equals(session.getIsBooked())) {
+                booked[cell >> 3] |= (byte) (1 << (cell & 7));
+            }
+            int price = Collections.binarySearch(prices, session.getPrice());
+            // 价格种类超过255时不再编码，客户端按无价格处理
+            priceIndex[cell] = price < 0xFF ? (byte) price : (byte) 0xFF;
+            sessionIds[cell] = session.getId();
+        }
         
-        // 生成次日场次
-        boolean success = generateNextDaySessions();
-        if (success) {
-            logger.info("场次初始化成功");
-        } else {
-            logger.error("场次初始化失败");
+        Base64.Encoder encoder = Base64.getEncoder();
+        String etag = snapshot.getEtag().substring(0, snapshot.getEtag().length() - 1) + "g\"";
+        return new SessionGrid(snapshot.getDate(), courts, hours, encoder.encodeToString(active),
+                encoder.encodeToString(booked), prices, encoder.encodeToString(priceIndex), sessionIds, etag);
+    }
+    
+    /**
+     * 发布场次变化事件（读取场次提交前的最新状态）
+     */
+    private void publishChangesByIds(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            publishChanges(sessionRepository.findSlotChangesByIdIn(ids));
+        }
+    }
+    
+    private void publishChanges(List<SlotChange> changes) {
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(SessionChangedEvent.of(changes));
         }
     }
 } 
\ No newline at end of file
@@ -1,10 +1,13 @@
 package com.sport_venue_booking_system.service.impl;
 
+import com.sport_venue_booking_system.dto.TemplatePropagation;
 import com.sport_venue_booking_system.entity.SessionTemplate;
 import com.sport_venue_booking_system.repository.SessionTemplateRepository;
+import com.sport_venue_booking_system.service.SessionService;
 import com.sport_venue_booking_system.service.SessionTemplateService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalTime;
 import java.util.List;
@@ -15,6 +18,9 @@ public class SessionTemplateServiceImpl implements SessionTemplateService {
     @Autowired
     private SessionTemplateRepository sessionTemplateRepository;
     
+    @Autowired
+    private SessionService sessionService;
+    
     @Override
     public List<SessionTemplate> getAllTemplates() {
         return sessionTemplateRepository.findAll();
@@ -26,16 +32,22 @@ public class SessionTemplateServiceImpl implements SessionTemplateService {
     }
     
     @Override
-    public SessionTemplate createTemplate(SessionTemplate template) {
+    @Transactional
+    public TemplatePropagation createTemplate(SessionTemplate template, boolean dryRun) {
         // 检查是否已存在相同场地和时间的模板
         if (sessionTemplateRepository.existsByCourtNameAndStartTime(template.getCourtName(), template.getStartTime())) {
             throw new RuntimeException("该场地和时间段已存在模板");
         }
-        return sessionTemplateRepository.save(template);
+        if (dryRun) {
+            return sessionService.propagateTemplate(null, template, false);
+        }
+        SessionTemplate savedTemplate = sessionTemplateRepository.save(template);
+        return sessionService.propagateTemplate(null, savedTemplate, true);
     }
     
     @Override
-    public SessionTemplate updateTemplate(Long id, SessionTemplate template) {
+    @Transactional
+    public TemplatePropagation updateTemplate(Long id, SessionTemplate template, boolean dryRun) {
         SessionTemplate existingTemplate = sessionTemplateRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("模板不存在"));
         
@@ -47,21 +59,34 @@ public class SessionTemplateServiceImpl implements SessionTemplateService {
             }
         }
         
+        // 保留变化前的模板用于比较
+        SessionTemplate previous = new SessionTemplate(existingTemplate.getId(), existingTemplate.getCourtName(),
+                existingTemplate.getStartTime(), existingTemplate.getPrice(), existingTemplate.getIsActive(),
+                existingTemplate.getNote());
+        if (dryRun) {
+            template.setId(id);
+            return sessionService.propagateTemplate(previous, template, false);
+        }
+        
         existingTemplate.setCourtName(template.getCourtName());
         existingTemplate.setStartTime(template.getStartTime());
         existingTemplate.setPrice(template.getPrice());
         existingTemplate.setIsActive(template.getIsActive());
         existingTemplate.setNote(template.getNote());
         
-        return sessionTemplateRepository.save(existingTemplate);
+        SessionTemplate savedTemplate = sessionTemplateRepository.save(existingTemplate);
+        return sessionService.propagateTemplate(previous, savedTemplate, true);
     }
     
     @Override
-    public void deleteTemplate(Long id) {
-        if (!sessionTemplateRepository.existsById(id)) {
-            throw new RuntimeException("模板不存在");
+    @Transactional
+    public TemplatePropagation deleteTemplate(Long id, boolean dryRun) {
+        SessionTemplate existingTemplate = sessionTemplateRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("模板不存在"));
+        if (!dryRun) {
+            sessionTemplateRepository.delete(existingTemplate);
         }
-        sessionTemplateRepository.deleteById(id);
+        return sessionService.propagateTemplate(existingTemplate, null, !dryRun);
     }
     
     @Override
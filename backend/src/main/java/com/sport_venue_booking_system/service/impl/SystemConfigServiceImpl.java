@@ -1,42 +1,118 @@
 package com.sport_venue_booking_system.service.impl;
 
+import com.sport_venue_booking_system.dto.SystemConfigSnapshot;
 import com.sport_venue_booking_system.entity.SystemConfig;
 import com.sport_venue_booking_system.repository.SystemConfigRepository;
+import com.sport_venue_booking_system.service.SyncVersionService;
 import com.sport_venue_booking_system.service.SystemConfigService;
+import com.sport_venue_booking_system.utils.TransactionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * 系统配置
+ * 读取由内存中的不可变快照提供，修改提交后重新加载快照并递增 sync_version 中的配置版本号，
+ * 其他实例定期读取版本号，发现变化后重新加载。
+ */
 @Service
 public class SystemConfigServiceImpl implements SystemConfigService {
     
+    private static final Logger logger = LoggerFactory.getLogger(SystemConfigServiceImpl.class);
+    private static final String VERSION_NAME = "system_config";
+    
     @Autowired
     private SystemConfigRepository systemConfigRepository;
     
+    @Autowired
+    private SyncVersionService syncVersionService;
+    
+    private final AtomicReference<SystemConfigSnapshot> snapshot = new AtomicReference<>();
+    
     @Override
     public Map<String, String> getAllConfigs() {
-        List<SystemConfig> configs = systemConfigRepository.findAll();
-        Map<String, String> configMap = new HashMap<>();
-        
-        for (SystemConfig config : configs) {
-            configMap.put(config.getConfigKey(), config.getConfigValue());
-        }
-        
-        return configMap;
+        return new HashMap<>(getSnapshot().values());
     }
     
     @Override
     public String getConfigValue(String configKey) {
-        return systemConfigRepository.findByConfigKey(configKey)
-                .map(SystemConfig::getConfigValue)
-                .orElse(null);
+        return getSnapshot().values().get(configKey);
     }
     
     @Override
+    public SystemConfigSnapshot getSnapshot() {
+        SystemConfigSnapshot current = snapshot.get();
+        if (current == null) {
+            current = reload(syncVersionService.current(VERSION_NAME));
+        }
+        return current;
+    }
+    
+    /**
+     * 定期检查配置版本号，其他实例修改配置后重新加载
+     */
+    @Scheduled(fixedDelayString = "${system-config.refresh-interval-ms:5000}")
+    public void refreshIfChanged() {
+        SystemConfigSnapshot current = snapshot.get();
+        if (current == null) {
+            return;
+        }
+        try {
+            long version = syncVersionService.current(VERSION_NAME);
+            if (version > current.version()) {
+                reload(version);
+                logger.info("系统配置已更新到版本 {}", version);
+            }
+        } catch (Exception e) {
+            logger.warn("检查系统配置版本失败: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * 从数据库加载配置并替换快照，不会用较旧的版本覆盖较新的快照
+     */
+    private SystemConfigSnapshot reload(long version) {
+        Map<String, String> values = new HashMap<>();
+        for (SystemConfig config : systemConfigRepository.findAll()) {
+            values.put(config.getConfigKey(), config.getConfigValue());
+        }
+        SystemConfigSnapshot loaded = SystemConfigSnapshot.of(version, values);
+        return snapshot.accumulateAndGet(loaded,
+                (current, next) -> current == null || next.version() >= current.version() ? next : current);
+    }
+    
+    /**
+     * 配置修改提交后递增版本号并重新加载快照
+     */
+    private void reloadAfterCommit() {
+        TransactionUtils.afterCommit(() -> reload(syncVersionService.reserve(VERSION_NAME, 1)));
+    }
+    
+    @Override
+    @Transactional
     public void updateConfig(String configKey, String configValue) {
+        saveConfig(configKey, configValue);
+        reloadAfterCommit();
+    }
+    
+    @Override
+    @Transactional
+    public void updateConfigs(Map<String, String> configs) {
+        for (Map.Entry<String, String> entry : configs.entrySet()) {
+            saveConfig(entry.getKey(), entry.getValue());
+        }
+        reloadAfterCommit();
+    }
+    
+    private void saveConfig(String configKey, String configValue) {
         SystemConfig config = systemConfigRepository.findByConfigKey(configKey)
                 .orElse(new SystemConfig());
         
@@ -58,6 +134,12 @@ public class SystemConfigServiceImpl implements SystemConfigService {
                 case "business_hours":
                     config.setDescription("营业时间");
                     break;
+                case "hold_duration_minutes":
+                    config.setDescription("场次预留时长(分钟)");
+                    break;
+                case "booking_horizon_days":
+                    config.setDescription("可预订天数(1-30天)");
+                    break;
                 default:
                     config.setDescription("系统配置");
             }
@@ -66,13 +148,6 @@ public class SystemConfigServiceImpl implements SystemConfigService {
         systemConfigRepository.save(config);
     }
     
-    @Override
-    public void updateConfigs(Map<String, String> configs) {
-        for (Map.Entry<String, String> entry : configs.entrySet()) {
-            updateConfig(entry.getKey(), entry.getValue());
-        }
-    }
-    
     @Override
     public List<SystemConfig> getAllConfigEntities() {
         return systemConfigRepository.findAll();
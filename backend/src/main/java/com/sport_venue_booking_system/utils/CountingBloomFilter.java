@@ -0,0 +1,91 @@
+package com.sport_venue_booking_system.utils;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 计数布隆过滤器
+ * 每个位置是一个计数器而不是一个比特，元素可以删除；mightContain返回false时元素一定不存在，
+ * 返回true时元素可能存在（误判率约为构造时指定的值）。
+ * 计数器使用无锁的原子数组，可并发读写；计数器达到上限后饱和，不再增减，避免溢出后误删其他元素。
+ * 元素为Base64编码的摘要（至少16字节，如SHA-256），本身已是均匀的哈希值，直接取前16字节作为两个哈希值。
+ */
+public class CountingBloomFilter {
+
+    private final AtomicIntegerArray counters;
+    private final int size;
+    private final int hashCount;
+    private final int maxCount;
+
+    /**
+     * @param expectedInsertions 预计元素数量
+     * @param falsePositiveRate  目标误判率
+     */
+    public CountingBloomFilter(int expectedInsertions, double falsePositiveRate) {
+        this(expectedInsertions, falsePositiveRate, Integer.MAX_VALUE);
+    }
+
+    CountingBloomFilter(int expectedInsertions, double falsePositiveRate, int maxCount) {
+        int n = Math.max(1, expectedInsertions);
+        double ln2 = Math.log(2);
+        this.size = (int) Math.max(64, Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2)));
+        this.hashCount = Math.max(1, (int) Math.round((double) size / n * ln2));
+        this.maxCount = maxCount;
+        this.counters = new AtomicIntegerArray(size);
+    }
+
+    public void add(String value) {
+        long[] hashes = hash(value);
+        for (int i = 0; i < hashCount; i++) {
+            counters.getAndUpdate(index(hashes, i), count -> count < maxCount ? count + 1 : count);
+        }
+    }
+
+    /**
+     * 删除元素，只能删除之前添加过的元素，否则会产生误删
+     * 已饱和的计数器不知道实际计数，保持不变
+     */
+    public void remove(String value) {
+        long[] hashes = hash(value);
+        for (int i = 0; i < hashCount; i++) {
+            int index = index(hashes, i);
+            counters.getAndUpdate(index, count -> count > 0 && count < maxCount ? count - 1 : count);
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long[] hashes = hash(value);
+        for (int i = 0; i < hashCount; i++) {
+            if (counters.get(index(hashes, i)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * 双重哈希：第i个位置为 h1 + i * h2
+     */
+    private int index(long[] hashes, int i) {
+        long combined = hashes[0] + i * hashes[1];
+        return (int) Math.floorMod(combined, (long) size);
+    }
+
+    private static long[] hash(String value) {
+        byte[] digest = Base64.getDecoder().decode(value);
+        if (digest.length < 16) {
+            throw new IllegalArgumentException("元素必须是至少16字节的摘要");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(digest);
+        return new long[]{buffer.getLong(), buffer.getLong() | 1L};
+    }
+}
\ No newline at end of file
@@ -1,116 +1,277 @@
 package com.sport_venue_booking_system.utils;
 
+import com.sport_venue_booking_system.entity.User;
+import com.sport_venue_booking_system.security.AuthenticatedUser;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
-import java.util.Date;
-import java.util.Base64;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * JWT生成与校验
+ * 签名密钥和解析器在启动时构建一次；校验通过的claims按token的SHA-256摘要缓存到token过期，
+ * 同一token的后续请求不再重复验签和解析。缓存为无锁的并发Map，读取不互相阻塞；
+ * 条目数超过 jwt.claims-cache.max-entries 时由写入的线程清除过期条目，仍超出时清除任意条目（之后重新验签即可）。
+ */
 @Component
 public class JwtUtil {
     
+    private static final Logger logger = LoggerFactory.getLogger(JwtUtil.class);
+    
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ADMIN = "adm";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+    
     @Value("${jwt.expiration:86400000}") // 默认24小时
     private long expirationTime;
     
     @Value("${jwt.secret}")
     private String secretString;
     
-    private SecretKey getSecretKey() {
+    @Value("${jwt.claims-cache.max-entries:10000}")
+    private int maxCacheEntries;
+    
+    private SecretKey secretKey;
+    private JwtParser parser;
+    
+    private final Map<String, CachedClaims> claimsCache = new ConcurrentHashMap<>(256);
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+    
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder parseNanos = new LongAdder();
+    private final LongAdder authentications = new LongAdder();
+    private final LongAdder authenticationNanos = new LongAdder();
+    
+    @PostConstruct
+    public void init() {
         // 确保secret只包含ASCII字符
         byte[] secretBytes = secretString.getBytes(StandardCharsets.US_ASCII);
-        System.out.println("Secret key length: " + secretBytes.length);
-        System.out.println("Secret key (first 20 chars): " + secretString.substring(0, Math.min(20, secretString.length())));
-        return Keys.hmacShaKeyFor(secretBytes);
+        secretKey = Keys.hmacShaKeyFor(secretBytes);
+        parser = Jwts.parserBuilder().setSigningKey(secretKey).build();
     }
     
-    public String generateToken(String username) {
-        System.out.println("Generating token for username: " + username);
-        
+    /**
+     * 签发令牌，携带用户ID、管理员标记和令牌版本，认证时不再查询用户
+     */
+    public String generateToken(User user) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expirationTime);
         
         // 使用Base64编码用户名，避免中文字符在HTTP请求头中的编码问题
-        String encodedUsername = Base64.getEncoder().encodeToString(username.getBytes(StandardCharsets.UTF_8));
-        System.out.println("Encoded username: " + encodedUsername);
+        String encodedUsername = Base64.getEncoder().encodeToString(user.getUsername().getBytes(StandardCharsets.UTF_8));
         
         String token = Jwts.builder()
                 .setSubject(encodedUsername)
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_ADMIN, Boolean.TRUE.equals(user.getIsAdmin()))
+                .claim(CLAIM_TOKEN_VERSION, user.getTokenVersion() != null ? user.getTokenVersion() : 0)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSecretKey(), SignatureAlgorithm.HS256)
+                .signWith(secretKey, SignatureAlgorithm.HS256)
                 .compact();
         
-        System.out.println("Generated token (first 50 chars): " + token.substring(0, Math.min(50, token.length())));
-        
         // 验证生成的token只包含安全字符
         validateTokenCharacters(token);
         
         return token;
     }
     
-    public String getUsernameFromToken(String token) {
-        System.out.println("Extracting username from token (first 50 chars): " + token.substring(0, Math.min(50, token.length())));
+    /**
+     * 验签并解析token，校验通过的结果缓存到token过期
+     *
+     * @throws io.jsonwebtoken.JwtException token无效或已过期
+     */
+    public Claims parseToken(String token) {
+        return parseToken(token, tokenHash(token));
+    }
+    
+    /**
+     * 验签并解析token，调用方已计算过token摘要时使用，避免重复计算
+     */
+    public Claims parseToken(String token, String key) {
+        long now = System.currentTimeMillis();
+        CachedClaims cached = claimsCache.get(key);
+        if (cached != null) {
+            if (cached.expiresAt() > now) {
+                cacheHits.increment();
+                return cached.claims();
+            }
+            claimsCache.remove(key, cached);
+        }
+        cacheMisses.increment();
         
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSecretKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        long start = System.nanoTime();
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        parseNanos.add(System.nanoTime() - start);
         
-        // 解码Base64编码的用户名
+        if (maxCacheEntries > 0) {
+            Date expiration = claims.getExpiration();
+            claimsCache.put(key, new CachedClaims(claims, expiration != null ? expiration.getTime() : now + expirationTime));
+            if (claimsCache.size() > maxCacheEntries) {
+                sweep(now);
+            }
+        }
+        return claims;
+    }
+    
+    /**
+     * 缓存超出容量时清除过期条目，仍超出时清除任意条目直到低于容量；同一时间只有一个线程清除
+     */
+    private void sweep(long now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            claimsCache.values().removeIf(cached -> cached.expiresAt() <= now);
+            Iterator<String> keys = claimsCache.keySet().iterator();
+            while (claimsCache.size() > maxCacheEntries && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+    
+    /**
+     * 从claims中取出用户名（subject为Base64编码的用户名）
+     */
+    public String getUsername(Claims claims) {
         String encodedUsername = claims.getSubject();
-        System.out.println("Encoded username from token: " + encodedUsername);
-        
         try {
             byte[] decodedBytes = Base64.getDecoder().decode(encodedUsername);
-            String decodedUsername = new String(decodedBytes, StandardCharsets.UTF_8);
-            System.out.println("Decoded username: " + decodedUsername);
-            return decodedUsername;
+            return new String(decodedBytes, StandardCharsets.UTF_8);
         } catch (Exception e) {
             // 如果解码失败，可能是旧版本的token，直接返回原始值
-            System.out.println("Failed to decode username, returning original: " + encodedUsername);
             return encodedUsername;
         }
     }
     
+    /**
+     * 由claims构建已认证用户，缺少用户ID的旧版本令牌返回null
+     */
+    public AuthenticatedUser getPrincipal(Claims claims) {
+        Object userId = claims.get(CLAIM_USER_ID);
+        if (!(userId instanceof Number)) {
+            return null;
+        }
+        Object version = claims.get(CLAIM_TOKEN_VERSION);
+        return new AuthenticatedUser(((Number) userId).longValue(), getUsername(claims),
+                Boolean.TRUE.equals(claims.get(CLAIM_ADMIN)), version instanceof Number ? ((Number) version).intValue() : 0);
+    }
+    
+    /**
+     * 从claims缓存中移除token（令牌撤销后调用）
+     */
+    public void evict(String token) {
+        claimsCache.remove(tokenHash(token));
+    }
+    
+    public String getUsernameFromToken(String token) {
+        return getUsername(parseToken(token));
+    }
+    
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSecretKey())
-                    .build()
-                    .parseClaimsJws(token);
+            parseToken(token);
             return true;
         } catch (Exception e) {
-            System.out.println("Token validation failed: " + e.getMessage());
+            logger.debug("Token validation failed: {}", e.getMessage());
             return false;
         }
     }
     
+    /**
+     * 记录一次请求认证的耗时（由认证过滤器调用）
+     */
+    public void recordAuthentication(long nanos) {
+        authentications.increment();
+        authenticationNanos.add(nanos);
+    }
+    
+    /**
+     * 清除已过期的缓存条目
+     */
+    @Scheduled(fixedDelayString = "${jwt.claims-cache.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        claimsCache.values().removeIf(cached -> cached.expiresAt() <= now);
+    }
+    
+    /**
+     * 认证耗时与claims缓存统计
+     */
+    public Map<String, Object> getStats() {
+        long hits = cacheHits.sum();
+        long misses = cacheMisses.sum();
+        long total = hits + misses;
+        long authCount = authentications.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cacheEntries", claimsCache.size());
+        stats.put("maxCacheEntries", maxCacheEntries);
+        stats.put("cacheHits", hits);
+        stats.put("cacheMisses", misses);
+        stats.put("cacheHitRate", total == 0 ? 0.0 : (double) hits / total);
+        stats.put("avgParseMicros", misses == 0 ? 0.0 : parseNanos.sum() / 1000.0 / misses);
+        stats.put("authentications", authCount);
+        stats.put("avgAuthenticationMicros", authCount == 0 ? 0.0 : authenticationNanos.sum() / 1000.0 / authCount);
+        return stats;
+    }
+    
+    /**
+     * token的SHA-256摘要，用作缓存键和撤销记录，不在内存和数据库中保存token原文
+     */
+    public static String tokenHash(String token) {
+        MessageDigest sha256 = SHA256.get();
+        sha256.reset();
+        return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+    
     /**
      * 验证token只包含安全的ASCII字符
      */
     private void validateTokenCharacters(String token) {
-        System.out.println("Validating token characters, length: " + token.length());
         for (int i = 0; i < token.length(); i++) {
             char c = token.charAt(i);
             if (c > 127) {
-                String error = "Token contains non-ASCII character at position " + i + ": " + c + " (code: " + (int)c + ")";
-                System.err.println(error);
-                throw new RuntimeException(error);
+                throw new RuntimeException("Token contains non-ASCII character at position " + i + ": " + c + " (code: " + (int)c + ")");
             }
             // JWT token应该只包含字母、数字、-、_、.、=
             if (!Character.isLetterOrDigit(c) && c != '-' && c != '_' && c != '.' && c != '=') {
-                String error = "Token contains invalid character at position " + i + ": " + c + " (code: " + (int)c + ")";
-                System.err.println(error);
-                throw new RuntimeException(error);
+                throw new RuntimeException("Token contains invalid character at position " + i + ": " + c + " (code: " + (int)c + ")");
             }
         }
-        System.out.println("Token character validation passed");
     }
-} 
\ No newline at end of file
+    
+    private record CachedClaims(Claims claims, long expiresAt) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.sport_venue_booking_system.utils;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 耗时记录
+ * 保留最近 capacity 次的耗时样本（环形缓冲），读取时排序计算分位数。
+ */
+public class LatencyRecorder {
+
+    private final long[] samples;
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+
+    public LatencyRecorder(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    public synchronized void record(long nanos) {
+        samples[(int) (count % samples.length)] = nanos;
+        count++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    /**
+     * 样本数、平均值与最近样本的p50/p90/p99（毫秒）
+     */
+    public Map<String, Object> snapshot() {
+        long[] sorted;
+        long total;
+        long recorded;
+        long max;
+        synchronized (this) {
+            sorted = Arrays.copyOf(samples, (int) Math.min(count, samples.length));
+            total = totalNanos;
+            recorded = count;
+            max = maxNanos;
+        }
+        Arrays.sort(sorted);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", recorded);
+        result.put("avgMs", recorded == 0 ? 0.0 : total / 1_000_000.0 / recorded);
+        result.put("p50Ms", percentile(sorted, 0.50));
+        result.put("p90Ms", percentile(sorted, 0.90));
+        result.put("p99Ms", percentile(sorted, 0.99));
+        result.put("maxMs", max / 1_000_000.0);
+        return result;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+    }
+}
\ No newline at end of file
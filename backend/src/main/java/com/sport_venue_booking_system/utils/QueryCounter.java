@@ -0,0 +1,33 @@
+package com.sport_venue_booking_system.utils;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * 统计当前线程执行的Hibernate SQL语句数
+ * 作为StatementInspector注册到Hibernate，每条语句准备执行前计数，不修改语句；
+ * 只统计经过Hibernate的语句，JdbcTemplate直接执行的语句不计入。
+ */
+public class QueryCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    /**
+     * 开始统计（清零当前线程的计数）
+     */
+    public void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    /**
+     * 当前线程自上次清零以来执行的语句数
+     */
+    public int count() {
+        return COUNT.get()[0];
+    }
+}
\ No newline at end of file
@@ -9,6 +9,7 @@ CREATE TABLE IF NOT EXISTS user
     password   VARCHAR(100) NOT NULL COMMENT 'BCrypt加密密码',
     phone      VARCHAR(20)  NOT NULL COMMENT '联系电话',
     is_admin   BOOLEAN NOT NULL DEFAULT FALSE COMMENT '是否为商家(管理员)',
+    token_version INT NOT NULL DEFAULT 0 COMMENT '令牌版本，递增后之前签发的令牌失效',
     PRIMARY KEY (id),
     UNIQUE KEY idx_username (username)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='用户信息表';
@@ -36,11 +37,28 @@ CREATE TABLE IF NOT EXISTS session
     is_active   BOOLEAN NOT NULL DEFAULT TRUE COMMENT '是否开放预订',
     is_booked    BOOLEAN NOT NULL DEFAULT FALSE COMMENT '是否已预订，默认否',
     note        TEXT COMMENT '场次备注',
+    hold_until  DATETIME DEFAULT NULL COMMENT '预留截止时间(预留期间is_booked为是，确认后清空)',
     PRIMARY KEY (id),
     KEY idx_court_booked_time (court_name, is_booked, start_time),
+    KEY idx_start_time (start_time),
     UNIQUE KEY uniq_court_time (court_name, start_time)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='场次信息表';
 
+-- 场次历史表（过期场次归档，保留占用情况用于统计）
+CREATE TABLE IF NOT EXISTS session_history
+(
+    id           BIGINT UNSIGNED NOT NULL COMMENT '场次ID(与原场次相同)',
+    court_name   VARCHAR(10)   NOT NULL COMMENT '场地名称',
+    start_time   DATETIME      NOT NULL COMMENT '开始时间',
+    price        DECIMAL(8, 2) NOT NULL COMMENT '场次价格',
+    is_active    BOOLEAN NOT NULL COMMENT '是否开放预订',
+    is_booked    BOOLEAN NOT NULL COMMENT '是否已预订',
+    note         TEXT COMMENT '场次备注',
+    archive_time DATETIME      NOT NULL COMMENT '归档时间',
+    PRIMARY KEY (id),
+    KEY idx_start_time (start_time, court_name)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='场次历史表';
+
 -- 订单表
 CREATE TABLE IF NOT EXISTS `order`
 (
@@ -52,7 +70,9 @@ CREATE TABLE IF NOT EXISTS `order`
     status      ENUM('pending','completed','cancelled') NOT NULL DEFAULT 'pending' COMMENT '订单状态',
     PRIMARY KEY (id),
     FOREIGN KEY (user_id) REFERENCES user (id),
-    KEY           idx_user_id (user_id)
+    KEY           idx_user_create_time (user_id, create_time, id),
+    KEY           idx_create_time (create_time, id),
+    KEY           idx_status (status)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='订单信息表';
 
 -- 订单场次快照表
@@ -75,4 +95,113 @@ CREATE TABLE IF NOT EXISTS system_config
     config_value VARCHAR(100) NOT NULL COMMENT '配置值(程序需按需转换类型)',
     description  VARCHAR(200) NOT NULL COMMENT '描述',
     PRIMARY KEY (config_key)
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='系统配置表';
\ No newline at end of file
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='系统配置表';
+
+-- 幂等记录表（开启 idempotency.db-enabled 时使用）
+CREATE TABLE IF NOT EXISTS idempotency_record
+(
+    record_key    VARCHAR(150) NOT NULL COMMENT '用户名:幂等键',
+    request_hash  VARCHAR(64)  DEFAULT NULL COMMENT '请求内容的SHA-256摘要',
+    response_body TEXT         DEFAULT NULL COMMENT '首次请求的响应(JSON)，处理中时为NULL',
+    create_time   DATETIME     NOT NULL COMMENT '创建时间',
+    PRIMARY KEY (record_key),
+    KEY idx_create_time (create_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='幂等记录表';
+
+-- 版本号序列表（按段预留，重启后继续递增）
+CREATE TABLE IF NOT EXISTS sync_version
+(
+    name    VARCHAR(50) NOT NULL COMMENT '序列名称',
+    version BIGINT      NOT NULL COMMENT '已预留的最大版本号',
+    PRIMARY KEY (name)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='版本号序列表';
+
+-- 任务锁表（多实例部署时定时任务的租约）
+CREATE TABLE IF NOT EXISTS job_lock
+(
+    name          VARCHAR(50)  NOT NULL COMMENT '任务名称',
+    holder        VARCHAR(150) DEFAULT NULL COMMENT '持有租约的实例',
+    lease_until   DATETIME(3)  NOT NULL COMMENT '租约到期时间(数据库时钟)',
+    fencing_token BIGINT       NOT NULL DEFAULT 0 COMMENT '租约令牌，每次取得租约时递增',
+    acquired_at   DATETIME(3)  DEFAULT NULL COMMENT '最近一次取得租约的时间',
+    last_run_key  VARCHAR(50)  DEFAULT NULL COMMENT '最近一次成功执行的标识(如计划触发日期)',
+    PRIMARY KEY (name)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='任务锁表';
+
+CREATE TABLE IF NOT EXISTS revoked_token
+(
+    id         BIGINT AUTO_INCREMENT,
+    token_hash VARCHAR(64) NOT NULL COMMENT '令牌的SHA-256摘要',
+    user_id    BIGINT      DEFAULT NULL COMMENT '令牌所属用户ID',
+    expires_at DATETIME    NOT NULL COMMENT '令牌本身的过期时间，之后记录可以删除',
+    revoked_at DATETIME    NOT NULL COMMENT '撤销时间',
+    PRIMARY KEY (id),
+    UNIQUE KEY uniq_token_hash (token_hash),
+    KEY idx_revoked_at (revoked_at),
+    KEY idx_expires_at (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='令牌撤销表';
+
+-- 已有数据库补建字段和索引：先查询information_schema，缺少时才执行ALTER，重复启动不会报错
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.COLUMNS
+                          WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'user' AND COLUMN_NAME = 'token_version'),
+               'DO 0', 'ALTER TABLE user ADD COLUMN token_version INT NOT NULL DEFAULT 0 COMMENT ''令牌版本，递增后之前签发的令牌失效''');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                          WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'order' AND INDEX_NAME = 'idx_user_create_time'),
+               'DO 0', 'ALTER TABLE `order` ADD INDEX idx_user_create_time (user_id, create_time, id)');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                          WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'order' AND INDEX_NAME = 'idx_create_time'),
+               'DO 0', 'ALTER TABLE `order` ADD INDEX idx_create_time (create_time, id)');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                          WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'order' AND INDEX_NAME = 'idx_status'),
+               'DO 0', 'ALTER TABLE `order` ADD INDEX idx_status (status)');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.COLUMNS
+                          WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'session' AND COLUMN_NAME = 'hold_until'),
+               'DO 0', 'ALTER TABLE session ADD COLUMN hold_until DATETIME DEFAULT NULL COMMENT ''预留截止时间(预留期间is_booked为是，确认后清空)''');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                          WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'session' AND INDEX_NAME = 'idx_start_time'),
+               'DO 0', 'ALTER TABLE session ADD INDEX idx_start_time (start_time)');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.COLUMNS
+                          WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'idempotency_record' AND COLUMN_NAME = 'request_hash'),
+               'DO 0', 'ALTER TABLE idempotency_record ADD COLUMN request_hash VARCHAR(64) DEFAULT NULL COMMENT ''请求内容的SHA-256摘要'' AFTER record_key');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.COLUMNS
+                          WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'idempotency_record' AND COLUMN_NAME = 'response_body'
+                            AND IS_NULLABLE = 'NO'),
+               'ALTER TABLE idempotency_record MODIFY response_body TEXT DEFAULT NULL COMMENT ''首次请求的响应(JSON)，处理中时为NULL''', 'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.COLUMNS
+                          WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'job_lock' AND COLUMN_NAME = 'last_run_key'),
+               'DO 0', 'ALTER TABLE job_lock ADD COLUMN last_run_key VARCHAR(50) DEFAULT NULL COMMENT ''最近一次成功执行的标识(如计划触发日期)''');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
\ No newline at end of file
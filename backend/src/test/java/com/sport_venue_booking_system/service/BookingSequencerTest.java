@@ -0,0 +1,104 @@
+package com.sport_venue_booking_system.service;
+
+import com.sport_venue_booking_system.entity.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 排队超时的命令不再执行；跨场地的订单与每个涉及场地的写线程串行
+ */
+class BookingSequencerTest {
+
+    private BookingSequencer bookingSequencer;
+    private OrderService orderService;
+    private SessionService sessionService;
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        orderService = mock(OrderService.class);
+        sessionService = mock(SessionService.class);
+        bookingSequencer = new BookingSequencer(mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(bookingSequencer, "orderService", orderService);
+        ReflectionTestUtils.setField(bookingSequencer, "sessionService", sessionService);
+        ReflectionTestUtils.setField(bookingSequencer, "ringSize", 16);
+        ReflectionTestUtils.setField(bookingSequencer, "batchSize", 8);
+        ReflectionTestUtils.setField(bookingSequencer, "timeoutMs", 300L);
+        ReflectionTestUtils.setField(bookingSequencer, "idleTimeoutMs", 60000L);
+
+        when(sessionService.getCourtNames(List.of(1L))).thenReturn(List.of("1号场"));
+        when(sessionService.getCourtNames(List.of(2L))).thenReturn(List.of("1号场"));
+        when(sessionService.getCourtNames(List.of(3L, 4L))).thenReturn(List.of("2号场", "1号场"));
+        // 用户1的订单阻塞在1号场的写线程中，直到测试放行
+        when(orderService.createOrder(eq(1L), anyList())).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await();
+            return order(1L);
+        });
+        when(orderService.createOrder(eq(2L), anyList())).thenReturn(order(2L));
+        when(orderService.createOrder(eq(3L), anyList())).thenReturn(order(3L));
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        bookingSequencer.shutdown();
+    }
+
+    @Test
+    void timedOutCommandIsCancelledBeforeItRuns() throws Exception {
+        CompletableFuture<Order> first = CompletableFuture.supplyAsync(() -> bookingSequencer.book(1L, List.of(1L)));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        assertThrows(RuntimeException.class, () -> bookingSequencer.book(2L, List.of(2L)));
+        release.countDown();
+
+        // 已开始处理的命令超时后继续等待结果，不返回失败
+        assertEquals(1L, first.get(5, TimeUnit.SECONDS).getId());
+        Thread.sleep(100);
+        verify(orderService, never()).createOrder(eq(2L), any());
+    }
+
+    @Test
+    void multiCourtOrderWaitsForEveryLane() throws Exception {
+        ReflectionTestUtils.setField(bookingSequencer, "timeoutMs", 5000L);
+        CompletableFuture<Order> first = CompletableFuture.supplyAsync(() -> bookingSequencer.book(1L, List.of(1L)));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Order> multiCourt = CompletableFuture.supplyAsync(() -> bookingSequencer.book(3L, List.of(3L, 4L)));
+        Thread.sleep(200);
+        assertFalse(multiCourt.isDone());
+        verify(orderService, never()).createOrder(eq(3L), any());
+
+        release.countDown();
+        assertEquals(1L, first.get(5, TimeUnit.SECONDS).getId());
+        assertEquals(3L, multiCourt.get(5, TimeUnit.SECONDS).getId());
+    }
+
+    private static Order order(Long id) {
+        Order order = new Order();
+        order.setId(id);
+        return order;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,116 @@
+package com.sport_venue_booking_system.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sport_venue_booking_system.dto.ApiResponse;
+import com.sport_venue_booking_system.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 开启 idempotency.db-enabled 时，多实例间同一幂等键只执行一次
+ * 另一个实例用本地缓存为空的第二个 IdempotencyService 模拟。
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotency;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "idempotency.db-enabled=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({IdempotencyService.class, JacksonAutoConfiguration.class})
+// 插入语句各自提交，与生产环境中不在事务内调用的情况一致
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyServiceTest {
+
+    // 启动类依赖，测试中不执行场次初始化
+    @MockBean
+    private StartupService startupService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private IdempotencyService otherInstance;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyRecordRepository.deleteAll();
+        otherInstance = new IdempotencyService();
+        ReflectionTestUtils.setField(otherInstance, "idempotencyRecordRepository", idempotencyRecordRepository);
+        ReflectionTestUtils.setField(otherInstance, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(otherInstance, "ttlSeconds", 600L);
+        ReflectionTestUtils.setField(otherInstance, "maxEntries", 100);
+        ReflectionTestUtils.setField(otherInstance, "dbEnabled", true);
+    }
+
+    @Test
+    void insertingTheSameKeyTwiceFails() {
+        LocalDateTime now = LocalDateTime.now();
+        idempotencyRecordRepository.insertPending("alice:key-1", "hash", now);
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> idempotencyRecordRepository.insertPending("alice:key-1", "hash", now));
+    }
+
+    @Test
+    void keyInProgressOnAnotherInstanceIsNotExecutedAgain() {
+        idempotencyRecordRepository.insertPending("alice:key-2", hashOf("[1, 2]"), LocalDateTime.now());
+        AtomicInteger executions = new AtomicInteger();
+
+        assertThrows(IdempotencyService.InProgressException.class,
+                () -> idempotencyService.execute("alice", "key-2", "[1, 2]", () -> {
+                    executions.incrementAndGet();
+                    return ApiResponse.success("order");
+                }));
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void completedKeyReturnsTheStoredResponseOnAnotherInstance() {
+        AtomicInteger executions = new AtomicInteger();
+
+        ApiResponse<String> first = idempotencyService.execute("alice", "key-3", "[1, 2]", () -> {
+            executions.incrementAndGet();
+            return ApiResponse.success("order-1");
+        });
+        ApiResponse<String> second = otherInstance.execute("alice", "key-3", "[1, 2]", () -> {
+            executions.incrementAndGet();
+            return ApiResponse.success("order-2");
+        });
+
+        assertEquals(1, executions.get());
+        assertEquals(first.getData(), second.getData());
+        assertThrows(IdempotencyService.KeyReusedException.class,
+                () -> otherInstance.execute("alice", "key-3", "[3]", () -> ApiResponse.success("order-3")));
+    }
+
+    private static String hashOf(String request) {
+        return (String) ReflectionTestUtils.invokeMethod(IdempotencyService.class, "hash", request);
+    }
+}
\ No newline at end of file
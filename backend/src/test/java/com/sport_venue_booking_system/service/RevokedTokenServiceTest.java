@@ -0,0 +1,92 @@
+package com.sport_venue_booking_system.service;
+
+import com.sport_venue_booking_system.entity.RevokedToken;
+import com.sport_venue_booking_system.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 撤销后立即判定已撤销；其他实例撤销的记录增量加载；令牌过期后清除撤销记录
+ */
+class RevokedTokenServiceTest {
+
+    private RevokedTokenService revokedTokenService;
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @BeforeEach
+    void setUp() {
+        revokedTokenRepository = mock(RevokedTokenRepository.class);
+        revokedTokenService = new RevokedTokenService();
+        ReflectionTestUtils.setField(revokedTokenService, "revokedTokenRepository", revokedTokenRepository);
+        ReflectionTestUtils.setField(revokedTokenService, "expectedEntries", 1000);
+        ReflectionTestUtils.setField(revokedTokenService, "falsePositiveRate", 0.001);
+        revokedTokenService.init();
+    }
+
+    @Test
+    void revokedTokenIsRejectedUntilPruned() {
+        String expiring = digest(1);
+        String active = digest(2);
+        // 没有事务时撤销记录立即加入内存
+        revokedTokenService.revoke(expiring, 1L, LocalDateTime.now().minusSeconds(1));
+        revokedTokenService.revoke(active, 1L, LocalDateTime.now().plusHours(1));
+
+        verify(revokedTokenRepository).insertIgnoringDuplicate(eq(expiring), eq(1L), any(), any());
+        assertTrue(revokedTokenService.isRevoked(expiring));
+        assertTrue(revokedTokenService.isRevoked(active));
+        assertFalse(revokedTokenService.isRevoked(digest(3)));
+
+        revokedTokenService.prune();
+
+        verify(revokedTokenRepository).deleteExpired(any());
+        assertFalse(revokedTokenService.isRevoked(expiring));
+        assertTrue(revokedTokenService.isRevoked(active));
+        assertEquals(1, revokedTokenService.getStats().get("entries"));
+    }
+
+    @Test
+    void loadsTokensRevokedByOtherInstances() {
+        String other = digest(4);
+        when(revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(any(), any())).thenReturn(
+                List.of(new RevokedToken(1L, other, 2L, LocalDateTime.now().plusHours(1), LocalDateTime.now())));
+
+        assertFalse(revokedTokenService.isRevoked(other));
+        revokedTokenService.loadRecent();
+
+        assertTrue(revokedTokenService.isRevoked(other));
+    }
+
+    @Test
+    void countsFilterChecks() {
+        revokedTokenService.revoke(digest(5), 1L, LocalDateTime.now().plusHours(1));
+        revokedTokenService.isRevoked(digest(5));
+        revokedTokenService.isRevoked(digest(6));
+
+        Map<String, Object> stats = revokedTokenService.getStats();
+        assertEquals(2L, stats.get("checks"));
+        assertEquals(1L, (long) stats.get("filterHits") - (long) stats.get("falsePositives"));
+    }
+
+    private static String digest(int seed) {
+        byte[] digest = new byte[32];
+        for (int i = 0; i < digest.length; i++) {
+            digest[i] = (byte) (seed * 31 + i * 7);
+        }
+        return Base64.getEncoder().encodeToString(digest);
+    }
+}
\ No newline at end of file
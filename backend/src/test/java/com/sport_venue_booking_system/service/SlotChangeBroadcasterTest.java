@@ -0,0 +1,123 @@
+package com.sport_venue_booking_system.service;
+
+import com.sport_venue_booking_system.dto.SlotChange;
+import com.sport_venue_booking_system.event.SessionChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 一个客户端的写出阻塞时，其他客户端仍按时收到推送，阻塞的客户端在发送队列溢出后被断开
+ */
+class SlotChangeBroadcasterTest {
+
+    private static final int EVENTS = 10;
+
+    private SlotChangeBroadcaster broadcaster;
+    private final CountDownLatch unblock = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new SlotChangeBroadcaster();
+        ReflectionTestUtils.setField(broadcaster, "flushIntervalMs", 20L);
+        ReflectionTestUtils.setField(broadcaster, "heartbeatMs", 60000L);
+        ReflectionTestUtils.setField(broadcaster, "timeoutMs", 60000L);
+        ReflectionTestUtils.setField(broadcaster, "maxSubscribers", 10);
+        ReflectionTestUtils.setField(broadcaster, "sendThreads", 2);
+        ReflectionTestUtils.setField(broadcaster, "subscriberQueue", 4);
+        broadcaster.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        unblock.countDown();
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void stalledSubscriberDoesNotDelayOthers() throws InterruptedException {
+        StalledEmitter stalled = new StalledEmitter(unblock);
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        broadcaster.register(stalled, null);
+        broadcaster.register(first, null);
+        broadcaster.register(second, null);
+
+        LocalDateTime startTime = LocalDate.now().plusDays(1).atTime(8, 0);
+        for (int i = 0; i < EVENTS; i++) {
+            broadcaster.onSessionChanged(SessionChangedEvent.of(List.of(change(startTime.plusHours(i)))));
+            int expected = i + 2; // 连接成功的注释行 + 已发布的变化
+            assertTrue(await(() -> first.sent.get() >= expected && second.sent.get() >= expected),
+                    "第 " + (i + 1) + " 次变化未及时推送");
+        }
+
+        assertTrue(await(() -> broadcaster.getSubscriberCount() == 2), "阻塞的客户端未被断开");
+        assertEquals(EVENTS + 1, first.sent.get());
+        assertEquals(EVENTS + 1, second.sent.get());
+    }
+
+    private static SlotChange change(LocalDateTime startTime) {
+        SlotChange change = new SlotChange();
+        change.setCourtName("1号场");
+        change.setStartTime(startTime);
+        change.setIsActive(true);
+        change.setIsBooked(true);
+        return change;
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        final AtomicInteger sent = new AtomicInteger();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sent.incrementAndGet();
+        }
+    }
+
+    /**
+     * 网络缓冲区已满的客户端：写出一直阻塞到测试结束
+     */
+    private static class StalledEmitter extends SseEmitter {
+
+        private final CountDownLatch unblock;
+
+        StalledEmitter(CountDownLatch unblock) {
+            this.unblock = unblock;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                unblock.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+    }
+}
\ No newline at end of file
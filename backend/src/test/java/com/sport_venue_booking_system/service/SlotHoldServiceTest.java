@@ -0,0 +1,136 @@
+package com.sport_venue_booking_system.service;
+
+import com.sport_venue_booking_system.common.BusinessException;
+import com.sport_venue_booking_system.common.ResultCode;
+import com.sport_venue_booking_system.dto.SlotHold;
+import com.sport_venue_booking_system.entity.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 同一用户并发预留只有一个通过；回滚放弃的预留不再确认或释放；到期的预留释放场次
+ */
+class SlotHoldServiceTest {
+
+    private SlotHoldService slotHoldService;
+    private SessionService sessionService;
+
+    @BeforeEach
+    void setUp() {
+        sessionService = mock(SessionService.class);
+        slotHoldService = new SlotHoldService();
+        ReflectionTestUtils.setField(slotHoldService, "sessionService", sessionService);
+        ReflectionTestUtils.setField(slotHoldService, "systemConfigService", mock(SystemConfigService.class));
+        ReflectionTestUtils.setField(slotHoldService, "tickMs", 10L);
+        ReflectionTestUtils.setField(slotHoldService, "wheelSize", 64);
+        slotHoldService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        slotHoldService.shutdown();
+    }
+
+    @Test
+    void concurrentReservesForOneUserAdmitOnlyOne() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        slotHoldService.reserve(1L);
+                        return true;
+                    } catch (BusinessException e) {
+                        assertEquals(ResultCode.OPERATION_NOT_ALLOWED, e.getResultCode());
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int admitted = 0;
+            for (Future<Boolean> result : results) {
+                admitted += result.get(5, TimeUnit.SECONDS) ? 1 : 0;
+            }
+            assertEquals(1, admitted);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void registeredHoldBlocksUntilTaken() {
+        slotHoldService.reserve(1L);
+        SlotHold hold = slotHoldService.register(1L, List.of(session(10L)), LocalDateTime.now().plusMinutes(5));
+
+        assertThrows(BusinessException.class, () -> slotHoldService.reserve(1L));
+        assertEquals(hold.getHoldId(), slotHoldService.take(hold.getHoldId(), 1L).getHoldId());
+        slotHoldService.reserve(1L);
+    }
+
+    @Test
+    void abandonedHoldCannotBeTakenAndIsNotReleased() throws Exception {
+        slotHoldService.reserve(1L);
+        SlotHold hold = slotHoldService.register(1L, List.of(session(10L)), LocalDateTime.now().plusNanos(50_000_000));
+
+        slotHoldService.abandon(1L);
+
+        BusinessException e = assertThrows(BusinessException.class, () -> slotHoldService.take(hold.getHoldId(), 1L));
+        assertEquals(ResultCode.NOT_FOUND, e.getResultCode());
+        assertEquals(0, slotHoldService.getActiveHoldCount());
+        Thread.sleep(200);
+        verify(sessionService, never()).releaseHold(anyList(), eq(hold.getExpireTime()));
+        slotHoldService.reserve(1L);
+    }
+
+    @Test
+    void takingAnotherUsersHoldIsRejected() {
+        slotHoldService.reserve(1L);
+        SlotHold hold = slotHoldService.register(1L, List.of(session(10L)), LocalDateTime.now().plusMinutes(5));
+
+        BusinessException e = assertThrows(BusinessException.class, () -> slotHoldService.take(hold.getHoldId(), 2L));
+        assertEquals(ResultCode.NOT_FOUND, e.getResultCode());
+    }
+
+    @Test
+    void expiredHoldReleasesSessions() {
+        slotHoldService.reserve(1L);
+        SlotHold hold = slotHoldService.register(1L, List.of(session(10L), session(11L)),
+                LocalDateTime.now().plusNanos(50_000_000));
+
+        verify(sessionService, timeout(2000)).releaseHold(List.of(10L, 11L), hold.getExpireTime());
+        assertEquals(0, slotHoldService.getActiveHoldCount());
+        slotHoldService.reserve(1L);
+    }
+
+    private static Session session(Long id) {
+        Session session = new Session();
+        session.setId(id);
+        session.setPrice(new BigDecimal("60.00"));
+        return session;
+    }
+}
\ No newline at end of file
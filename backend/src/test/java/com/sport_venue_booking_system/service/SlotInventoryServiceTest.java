@@ -0,0 +1,130 @@
+package com.sport_venue_booking_system.service;
+
+import com.sport_venue_booking_system.common.BookingMode;
+import com.sport_venue_booking_system.common.BusinessException;
+import com.sport_venue_booking_system.common.ResultCode;
+import com.sport_venue_booking_system.entity.Session;
+import com.sport_venue_booking_system.repository.SessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 同一场次的并发占用只有一个成功；部分失败时回滚已占用的场次；登记不覆盖已占用的预订位
+ */
+class SlotInventoryServiceTest {
+
+    private final LocalDateTime tomorrow = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).withSecond(0).withNano(0);
+
+    private SlotInventoryService slotInventoryService;
+
+    @BeforeEach
+    void setUp() {
+        slotInventoryService = new SlotInventoryService();
+        ReflectionTestUtils.setField(slotInventoryService, "sessionRepository", mock(SessionRepository.class));
+        ReflectionTestUtils.setField(slotInventoryService, "bookingMode", BookingMode.INVENTORY);
+        slotInventoryService.register(session(1L, "1号场", tomorrow));
+        slotInventoryService.register(session(2L, "1号场", tomorrow.plusHours(1)));
+        slotInventoryService.register(session(3L, "2号场", tomorrow));
+    }
+
+    @Test
+    void concurrentClaimsOfOneSlotAdmitOnlyOne() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        slotInventoryService.claim(List.of(1L), LocalDateTime.now());
+                        return true;
+                    } catch (BusinessException e) {
+                        assertEquals(ResultCode.SESSION_ALREADY_BOOKED, e.getResultCode());
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int claimed = 0;
+            for (Future<Boolean> result : results) {
+                claimed += result.get(5, TimeUnit.SECONDS) ? 1 : 0;
+            }
+            assertEquals(1, claimed);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedClaimReleasesSlotsAlreadyTaken() {
+        slotInventoryService.claim(List.of(2L), LocalDateTime.now());
+
+        // 场次1先被占用，场次2已预订时回滚场次1
+        BusinessException e = assertThrows(BusinessException.class,
+                () -> slotInventoryService.claim(List.of(1L, 2L), LocalDateTime.now()));
+        assertEquals(ResultCode.SESSION_ALREADY_BOOKED, e.getResultCode());
+
+        List<Session> claimed = slotInventoryService.claim(List.of(1L, 3L), LocalDateTime.now());
+        assertEquals(List.of(1L, 3L), claimed.stream().map(Session::getId).toList());
+        assertTrue(claimed.stream().allMatch(Session::getIsBooked));
+    }
+
+    @Test
+    void releasedSlotCanBeClaimedAgain() {
+        List<Session> claimed = slotInventoryService.claim(List.of(1L), LocalDateTime.now());
+        assertThrows(BusinessException.class, () -> slotInventoryService.claim(List.of(1L), LocalDateTime.now()));
+
+        slotInventoryService.release(claimed);
+
+        assertEquals(1, slotInventoryService.claim(List.of(1L), LocalDateTime.now()).size());
+    }
+
+    @Test
+    void reRegisteringDoesNotClearClaimedSlot() {
+        slotInventoryService.claim(List.of(1L), LocalDateTime.now());
+
+        // 事务提交前读取的快照仍是未预订，重新登记不能清除已占用的预订位
+        Session stale = session(1L, "1号场", tomorrow);
+        stale.setPrice(new BigDecimal("80.00"));
+        slotInventoryService.register(stale);
+
+        assertThrows(BusinessException.class, () -> slotInventoryService.claim(List.of(1L), LocalDateTime.now()));
+    }
+
+    @Test
+    void rejectsInactiveAndExpiredSlots() {
+        Session inactive = session(4L, "3号场", tomorrow);
+        inactive.setIsActive(false);
+        slotInventoryService.register(inactive);
+        slotInventoryService.register(session(5L, "3号场", LocalDateTime.now().minusHours(1)));
+
+        assertEquals(ResultCode.SESSION_UNAVAILABLE, assertThrows(BusinessException.class,
+                () -> slotInventoryService.claim(List.of(4L), LocalDateTime.now())).getResultCode());
+        assertEquals(ResultCode.SESSION_EXPIRED, assertThrows(BusinessException.class,
+                () -> slotInventoryService.claim(List.of(5L), LocalDateTime.now())).getResultCode());
+        assertEquals(ResultCode.SESSION_NOT_FOUND, assertThrows(BusinessException.class,
+                () -> slotInventoryService.claim(List.of(99L), LocalDateTime.now())).getResultCode());
+    }
+
+    private static Session session(Long id, String courtName, LocalDateTime startTime) {
+        return new Session(id, courtName, startTime, new BigDecimal("60.00"), true, false, null, null);
+    }
+}
\ No newline at end of file
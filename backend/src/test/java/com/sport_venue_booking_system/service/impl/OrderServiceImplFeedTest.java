@@ -0,0 +1,162 @@
+package com.sport_venue_booking_system.service.impl;
+
+import com.sport_venue_booking_system.common.BusinessException;
+import com.sport_venue_booking_system.common.ResultCode;
+import com.sport_venue_booking_system.dto.CursorPage;
+import com.sport_venue_booking_system.dto.OrderVerificationResponse;
+import com.sport_venue_booking_system.entity.Order;
+import com.sport_venue_booking_system.entity.User;
+import com.sport_venue_booking_system.repository.OrderRepository;
+import com.sport_venue_booking_system.repository.UserRepository;
+import com.sport_venue_booking_system.service.DashboardStatsService;
+import com.sport_venue_booking_system.service.OrderService;
+import com.sport_venue_booking_system.service.SessionService;
+import com.sport_venue_booking_system.service.SlotHoldService;
+import com.sport_venue_booking_system.service.SlotInventoryService;
+import com.sport_venue_booking_system.service.StartupService;
+import com.sport_venue_booking_system.service.SystemConfigService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 订单游标分页：下单时间相同的订单按订单ID区分，翻页不重复不遗漏；无效游标返回参数错误
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:order_feed;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(OrderServiceImpl.class)
+class OrderServiceImplFeedTest {
+
+    // 启动类依赖，测试中不执行场次初始化
+    @MockBean
+    private StartupService startupService;
+
+    @MockBean
+    private SessionService sessionService;
+
+    @MockBean
+    private SystemConfigService systemConfigService;
+
+    @MockBean
+    private SlotInventoryService slotInventoryService;
+
+    @MockBean
+    private SlotHoldService slotHoldService;
+
+    @MockBean
+    private DashboardStatsService dashboardStatsService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void pagesThroughOrdersWithTiedCreateTime() {
+        Long userId = createUser("feed_ties");
+        LocalDateTime tied = LocalDateTime.now().withNano(0).minusHours(1);
+        List<Order> expected = new ArrayList<>();
+        // 五个订单下单时间相同，分页边界会落在同一时间的订单之间
+        for (int i = 0; i < 5; i++) {
+            expected.add(createOrder(userId, tied));
+        }
+        expected.add(createOrder(userId, tied.plusMinutes(1)));
+        expected.add(createOrder(userId, tied.minusMinutes(1)));
+        expected.sort(Comparator.comparing(Order::getCreateTime).thenComparing(Order::getId).reversed());
+        entityManager.flush();
+        entityManager.clear();
+
+        List<String> fetched = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<OrderVerificationResponse> page = orderService.getUserOrderFeed(userId, cursor, 2, pages == 0);
+            if (pages == 0) {
+                assertEquals(7L, page.getTotal());
+            } else {
+                assertNull(page.getTotal());
+            }
+            page.getItems().forEach(item -> fetched.add(item.getOrderNumber()));
+            assertEquals(page.isHasMore(), page.getNextCursor() != null);
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(4, pages);
+        assertEquals(expected.stream().map(order -> order.getId().toString()).toList(), fetched);
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        Long userId = createUser("feed_single");
+        createOrder(userId, LocalDateTime.now().withNano(0));
+        entityManager.flush();
+        entityManager.clear();
+
+        CursorPage<OrderVerificationResponse> page = orderService.getUserOrderFeed(userId, null, 2, false);
+
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void rejectsInvalidCursorAsParameterError() {
+        Long userId = createUser("feed_invalid");
+
+        for (String cursor : List.of("not-a-cursor", "bm8tc2VwYXJhdG9y", "MjAyNi0wMS0wMVQxMDowMHx4")) {
+            BusinessException e = assertThrows(BusinessException.class,
+                    () -> orderService.getUserOrderFeed(userId, cursor, 2, false));
+            assertEquals(ResultCode.PARAMETER_INVALID, e.getResultCode());
+        }
+        BusinessException e = assertThrows(BusinessException.class,
+                () -> orderService.getOrderFeed("%%%", 2, false));
+        assertEquals(ResultCode.PARAMETER_INVALID, e.getResultCode());
+        assertTrue(e.getMessage().contains("游标"));
+    }
+
+    private Long createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("{noop}test");
+        user.setPhone("13800000000");
+        return userRepository.save(user).getId();
+    }
+
+    private Order createOrder(Long userId, LocalDateTime createTime) {
+        return orderRepository.save(new Order(null, userId, new BigDecimal("60.00"),
+                createTime, null, Order.OrderStatus.pending));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,133 @@
+package com.sport_venue_booking_system.service.impl;
+
+import com.sport_venue_booking_system.dto.OrderVerificationResponse;
+import com.sport_venue_booking_system.entity.Order;
+import com.sport_venue_booking_system.entity.OrderSession;
+import com.sport_venue_booking_system.entity.User;
+import com.sport_venue_booking_system.repository.OrderRepository;
+import com.sport_venue_booking_system.repository.OrderSessionRepository;
+import com.sport_venue_booking_system.repository.UserRepository;
+import com.sport_venue_booking_system.service.DashboardStatsService;
+import com.sport_venue_booking_system.service.OrderService;
+import com.sport_venue_booking_system.service.SessionService;
+import com.sport_venue_booking_system.service.SlotHoldService;
+import com.sport_venue_booking_system.service.SlotInventoryService;
+import com.sport_venue_booking_system.service.StartupService;
+import com.sport_venue_booking_system.service.SystemConfigService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 订单列表构建的语句数不随订单数增长（订单、用户、订单场次各一条查询）
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:order_query_count;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(OrderServiceImpl.class)
+class OrderServiceImplQueryCountTest {
+
+    // 启动类依赖，测试中不执行场次初始化
+    @MockBean
+    private StartupService startupService;
+
+    @MockBean
+    private SessionService sessionService;
+
+    @MockBean
+    private SystemConfigService systemConfigService;
+
+    @MockBean
+    private SlotInventoryService slotInventoryService;
+
+    @MockBean
+    private SlotHoldService slotHoldService;
+
+    @MockBean
+    private DashboardStatsService dashboardStatsService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderSessionRepository orderSessionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void userOrdersUseConstantStatementCount() {
+        long single = countStatements(createUserWithOrders("query_count_1", 1));
+        long many = countStatements(createUserWithOrders("query_count_20", 20));
+
+        assertEquals(3, single);
+        assertEquals(single, many);
+    }
+
+    private long countStatements(Long userId) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<OrderVerificationResponse> responses = orderService.getUserOrders(userId);
+        long statements = statistics.getPrepareStatementCount();
+        assertEquals(2, responses.get(0).getSessions().size());
+        return statements;
+    }
+
+    private Long createUserWithOrders(String username, int orders) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("{noop}test");
+        user.setPhone("13800000000");
+        Long userId = userRepository.save(user).getId();
+
+        LocalDateTime firstDay = LocalDateTime.now().minusDays(orders).withHour(9).withMinute(0).withSecond(0).withNano(0);
+        for (int i = 0; i < orders; i++) {
+            LocalDateTime startTime = firstDay.plusDays(i);
+            Order order = orderRepository.save(new Order(null, userId, new BigDecimal("120.00"),
+                    startTime.minusDays(1), startTime, Order.OrderStatus.completed));
+            for (int hour = 0; hour < 2; hour++) {
+                OrderSession orderSession = new OrderSession();
+                orderSession.setOrderId(order.getId());
+                orderSession.setCourtName("1号场");
+                orderSession.setStartTime(startTime.plusHours(hour));
+                orderSession.setPrice(new BigDecimal("60.00"));
+                orderSessionRepository.save(orderSession);
+            }
+        }
+        // 清空持久化上下文，查询不命中一级缓存
+        entityManager.flush();
+        entityManager.clear();
+        return userId;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.sport_venue_booking_system.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 添加后一定判定存在；删除后其他元素不受影响；误判率在目标值附近；饱和的计数器不再减少
+ */
+class CountingBloomFilterTest {
+
+    private final Random random = new Random(42);
+
+    @Test
+    void addedValuesAreAlwaysFound() {
+        CountingBloomFilter filter = new CountingBloomFilter(1000, 0.01);
+        List<String> values = digests(1000);
+
+        values.forEach(value -> assertFalse(filter.mightContain(value)));
+        values.forEach(filter::add);
+
+        values.forEach(value -> assertTrue(filter.mightContain(value)));
+    }
+
+    @Test
+    void removeKeepsOtherValues() {
+        CountingBloomFilter filter = new CountingBloomFilter(2000, 0.01);
+        List<String> removed = digests(1000);
+        List<String> kept = digests(1000);
+        removed.forEach(filter::add);
+        kept.forEach(filter::add);
+
+        removed.forEach(filter::remove);
+
+        kept.forEach(value -> assertTrue(filter.mightContain(value)));
+        long stillFound = removed.stream().filter(filter::mightContain).count();
+        assertTrue(stillFound < 50, "删除后仍判定存在 " + stillFound + " 个");
+    }
+
+    @Test
+    void addedTwiceNeedsTwoRemoves() {
+        CountingBloomFilter filter = new CountingBloomFilter(100, 0.01);
+        String value = digests(1).get(0);
+        filter.add(value);
+        filter.add(value);
+
+        filter.remove(value);
+        assertTrue(filter.mightContain(value));
+        filter.remove(value);
+        assertFalse(filter.mightContain(value));
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        int expected = 10000;
+        double target = 0.01;
+        CountingBloomFilter filter = new CountingBloomFilter(expected, target);
+        digests(expected).forEach(filter::add);
+
+        int probes = 100000;
+        int falsePositives = 0;
+        for (String value : digests(probes)) {
+            if (filter.mightContain(value)) {
+                falsePositives++;
+            }
+        }
+
+        double rate = (double) falsePositives / probes;
+        assertTrue(rate < target * 2, "误判率 " + rate + " 超出目标值 " + target + " 的两倍");
+    }
+
+    @Test
+    void saturatedCountersAreNotDecremented() {
+        CountingBloomFilter filter = new CountingBloomFilter(100, 0.01, 3);
+        String value = digests(1).get(0);
+        for (int i = 0; i < 5; i++) {
+            filter.add(value);
+        }
+
+        // 计数器停在上限，删除次数与添加次数相同后仍判定存在，不会因计数丢失产生漏判
+        for (int i = 0; i < 5; i++) {
+            filter.remove(value);
+        }
+        assertTrue(filter.mightContain(value));
+    }
+
+    @Test
+    void rejectsShortDigests() {
+        CountingBloomFilter filter = new CountingBloomFilter(100, 0.01);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> filter.add(Base64.getEncoder().encodeToString(new byte[8])));
+    }
+
+    private List<String> digests(int count) {
+        List<String> digests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] digest = new byte[32];
+            random.nextBytes(digest);
+            digests.add(Base64.getEncoder().encodeToString(digest));
+        }
+        return digests;
+    }
+}
\ No newline at end of file
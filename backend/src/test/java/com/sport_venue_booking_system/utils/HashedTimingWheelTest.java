@@ -0,0 +1,93 @@
+package com.sport_venue_booking_system.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 到期执行、超过一圈的任务按剩余圈数等待、取消后不执行
+ * 时间轮tick为10ms、4个槽，一圈40ms
+ */
+class HashedTimingWheelTest {
+
+    private static final long TICK_MS = 10;
+
+    private final HashedTimingWheel timingWheel = new HashedTimingWheel("test-wheel", TICK_MS, TimeUnit.MILLISECONDS, 4, Runnable::run);
+
+    @AfterEach
+    void tearDown() {
+        timingWheel.stop();
+    }
+
+    @Test
+    void runsTaskAfterDelay() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicLong elapsed = new AtomicLong();
+        long start = System.nanoTime();
+
+        timingWheel.schedule(() -> {
+            elapsed.set(System.nanoTime() - start);
+            done.countDown();
+        }, 25, TimeUnit.MILLISECONDS);
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertTrue(elapsed.get() >= TimeUnit.MILLISECONDS.toNanos(25), "任务在到期前执行");
+    }
+
+    @Test
+    void waitsRemainingRoundsBeforeExpiring() throws Exception {
+        List<String> fired = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(2);
+        AtomicLong lateElapsed = new AtomicLong();
+        long start = System.nanoTime();
+
+        // 两个任务相差三圈，落在同一个槽中：先到期的先执行，后一个需要转满剩余圈数
+        timingWheel.schedule(() -> {
+            fired.add("early");
+            done.countDown();
+        }, 30, TimeUnit.MILLISECONDS);
+        timingWheel.schedule(() -> {
+            lateElapsed.set(System.nanoTime() - start);
+            fired.add("late");
+            done.countDown();
+        }, 30 + 3 * 4 * TICK_MS, TimeUnit.MILLISECONDS);
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of("early", "late"), fired);
+        assertTrue(lateElapsed.get() >= TimeUnit.MILLISECONDS.toNanos(30 + 3 * 4 * TICK_MS), "经过多圈的任务提前执行");
+    }
+
+    @Test
+    void cancelledTaskDoesNotRun() throws Exception {
+        CountDownLatch cancelledRan = new CountDownLatch(1);
+        CountDownLatch marker = new CountDownLatch(1);
+
+        HashedTimingWheel.Timeout timeout = timingWheel.schedule(cancelledRan::countDown, 30, TimeUnit.MILLISECONDS);
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        // 晚于被取消任务到期的任务执行后，被取消的任务仍未执行
+        timingWheel.schedule(marker::countDown, 80, TimeUnit.MILLISECONDS);
+
+        assertTrue(marker.await(2, TimeUnit.SECONDS));
+        assertEquals(1, cancelledRan.getCount());
+    }
+
+    @Test
+    void cancelAfterExpiryReturnsFalse() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+
+        HashedTimingWheel.Timeout timeout = timingWheel.schedule(done::countDown, 0, TimeUnit.MILLISECONDS);
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertFalse(timeout.cancel());
+    }
+}
\ No newline at end of file
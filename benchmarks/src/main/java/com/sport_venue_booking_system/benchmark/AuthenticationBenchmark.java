@@ -0,0 +1,128 @@
+package com.sport_venue_booking_system.benchmark;
+
+import com.sport_venue_booking_system.entity.User;
+import com.sport_venue_booking_system.repository.UserRepository;
+import com.sport_venue_booking_system.security.JwtAuthenticationFilter;
+import com.sport_venue_booking_system.service.RevokedTokenService;
+import com.sport_venue_booking_system.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtAuthenticationFilter的完整认证路径：claims缓存、撤销检查（布隆过滤器与撤销记录）和令牌版本检查，
+ * 运行在完整的Spring上下文中（BenchmarkApplication）。
+ * valid 为正常令牌，revoked 为已退出登录的令牌，staleVersion 为修改密码等操作之前签发的令牌。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthenticationBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest validRequest;
+    private MockHttpServletRequest revokedRequest;
+    private MockHttpServletRequest staleVersionRequest;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplication.start("authentication");
+        filter = context.getBean(JwtAuthenticationFilter.class);
+        JwtUtil jwtUtil = context.getBean(JwtUtil.class);
+
+        User user = createUser("bench_auth");
+        validRequest = request(jwtUtil.generateToken(user));
+
+        User loggedOut = createUser("bench_logout");
+        String revokedToken = jwtUtil.generateToken(loggedOut);
+        Claims claims = jwtUtil.parseToken(revokedToken);
+        context.getBean(RevokedTokenService.class).revoke(JwtUtil.tokenHash(revokedToken), loggedOut.getId(),
+                LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault()));
+        revokedRequest = request(revokedToken);
+
+        // 按数据库中的版本0签发后版本已递增：签发时使用版本1，数据库中仍为0，版本检查不通过
+        User changed = createUser("bench_changed");
+        changed.setTokenVersion(1);
+        staleVersionRequest = request(jwtUtil.generateToken(changed));
+
+        // 确认三种令牌分别经过预期的认证路径，避免测量的是解析失败等其他分支
+        try {
+            if (authenticate(validRequest) == null || authenticate(revokedRequest) != null
+                    || authenticate(staleVersionRequest) != null) {
+                throw new IllegalStateException("认证结果与预期不符");
+            }
+        } catch (ServletException | IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Authentication valid() throws ServletException, IOException {
+        return authenticate(validRequest);
+    }
+
+    @Benchmark
+    public Authentication revoked() throws ServletException, IOException {
+        return authenticate(revokedRequest);
+    }
+
+    @Benchmark
+    public Authentication staleVersion() throws ServletException, IOException {
+        return authenticate(staleVersionRequest);
+    }
+
+    private Authentication authenticate(MockHttpServletRequest request) throws ServletException, IOException {
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private User createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("{noop}benchmark");
+        user.setPhone("13800000000");
+        user.setIsAdmin(false);
+        user.setTokenVersion(0);
+        return context.getBean(UserRepository.class).save(user);
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/user/orders");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
\ No newline at end of file
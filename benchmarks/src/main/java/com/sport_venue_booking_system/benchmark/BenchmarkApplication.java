@@ -0,0 +1,37 @@
+package com.sport_venue_booking_system.benchmark;
+
+import com.sport_venue_booking_system.SportVenueBookingSystemApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 基准测试使用的完整Spring上下文，数据库为嵌入式H2（MySQL兼容模式）
+ * 表由Hibernate按实体创建，没有实体的表（job_lock、session_history）不存在，任务锁使用的SQL也只适用于MySQL，
+ * 因此显式关闭启动初始化（startup.enabled）和定时任务租约（job-lock.enabled），基准需要的数据由各基准自行创建。
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * @param database 内存数据库名称，不同基准使用不同的库
+     */
+    static ConfigurableApplicationContext start(String database) {
+        return new SpringApplicationBuilder(SportVenueBookingSystemApplication.class).run(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--spring.datasource.url=jdbc:h2:mem:" + database + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.sql.init.mode=never",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--logging.level.root=WARN",
+                "--logging.level.com.sport_venue_booking_system=WARN",
+                "--startup.enabled=false",
+                "--job-lock.enabled=false");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.sport_venue_booking_system.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 基准测试入口：java -jar target/benchmarks.jar [JMH参数]
+ * 参数与JMH命令行相同（如只运行JWT基准：java -jar target/benchmarks.jar Jwt）；
+ * 未指定 -rff 时结果以JSON写入 jmh-results/jmh-result-时间戳.json，便于比较不同版本的结果。
+ */
+public class BenchmarkRunner {
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (commandLine.getResult().hasValue()) {
+            options.resultFormat(commandLine.getResultFormat().orElse(ResultFormatType.JSON));
+        } else {
+            File resultDir = new File("jmh-results");
+            resultDir.mkdirs();
+            options.resultFormat(ResultFormatType.JSON)
+                    .result(new File(resultDir, "jmh-result-" + LocalDateTime.now().format(FILE_TIME) + ".json").getPath());
+        }
+        new Runner(options.build()).run();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.sport_venue_booking_system.benchmark;
+
+import com.sport_venue_booking_system.entity.User;
+import com.sport_venue_booking_system.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtUtil签发、解析和校验
+ * parseCached 为同一token重复请求（命中claims缓存），parseUncached 关闭缓存，每次都验签解析。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    // 与 application.yml 中的 jwt.secret 长度相同的测试密钥
+    private static final String SECRET = "benchmark-secret-0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJ";
+
+    private JwtUtil cachedJwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setup() {
+        cachedJwtUtil = newJwtUtil(10000);
+        uncachedJwtUtil = newJwtUtil(0);
+        user = new User();
+        user.setId(42L);
+        user.setUsername("benchmark用户");
+        user.setIsAdmin(false);
+        user.setTokenVersion(3);
+        token = cachedJwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String generate() {
+        return cachedJwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public Claims parseCached() {
+        return cachedJwtUtil.parseToken(token);
+    }
+
+    @Benchmark
+    public Claims parseUncached() {
+        return uncachedJwtUtil.parseToken(token);
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return cachedJwtUtil.validateToken(token);
+    }
+
+    private static JwtUtil newJwtUtil(int maxCacheEntries) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secretString", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expirationTime", 86400000L);
+        ReflectionTestUtils.setField(jwtUtil, "maxCacheEntries", maxCacheEntries);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,152 @@
+package com.sport_venue_booking_system.benchmark;
+
+import com.sport_venue_booking_system.dto.OrderVerificationResponse;
+import com.sport_venue_booking_system.entity.Order;
+import com.sport_venue_booking_system.entity.OrderSession;
+import com.sport_venue_booking_system.entity.Session;
+import com.sport_venue_booking_system.entity.User;
+import com.sport_venue_booking_system.repository.OrderRepository;
+import com.sport_venue_booking_system.repository.OrderSessionRepository;
+import com.sport_venue_booking_system.repository.SessionRepository;
+import com.sport_venue_booking_system.repository.UserRepository;
+import com.sport_venue_booking_system.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderServiceImpl下单与订单列表，运行在完整的Spring上下文中（BenchmarkApplication），数据库为嵌入式H2
+ * 结果反映服务层与JPA的开销，不包含MySQL的网络往返和锁等待，只适合比较同一环境下不同版本的结果。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderServiceBenchmark {
+
+    /**
+     * 应用上下文，每次运行启动一次
+     */
+    @State(Scope.Benchmark)
+    public static class Application {
+
+        ConfigurableApplicationContext context;
+        OrderService orderService;
+        JdbcTemplate jdbcTemplate;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = BenchmarkApplication.start("benchmark");
+            orderService = context.getBean(OrderService.class);
+            jdbcTemplate = context.getBean(JdbcTemplate.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+
+        User createUser(String username) {
+            User user = new User();
+            user.setUsername(username);
+            user.setPassword("{noop}benchmark");
+            user.setPhone("13800000000");
+            return context.getBean(UserRepository.class).save(user);
+        }
+
+        Session createSession(String courtName, LocalDateTime startTime) {
+            return context.getBean(SessionRepository.class).save(
+                    new Session(null, courtName, startTime, new BigDecimal("60.00"), true, false, null, null));
+        }
+    }
+
+    /**
+     * 下单：每次调用前把场次恢复为可预订、把用户的订单标记为已核验，使下一次下单可以通过校验
+     */
+    @State(Scope.Thread)
+    public static class Booking {
+
+        Long userId;
+        List<Long> sessionIds;
+
+        @Setup(Level.Trial)
+        public void prepare(Application application) {
+            userId = application.createUser("bench_booker").getId();
+            // 两天后的场次，不受退订时限和过期校验影响
+            LocalDateTime startTime = LocalDate.now().plusDays(2).atTime(10, 0);
+            sessionIds = List.of(application.createSession("1号场", startTime).getId());
+        }
+
+        @Setup(Level.Invocation)
+        public void reset(Application application) {
+            application.jdbcTemplate.update("UPDATE session SET is_booked = FALSE WHERE id = ?", sessionIds.get(0));
+            application.jdbcTemplate.update("UPDATE `order` SET status = 'completed' WHERE user_id = ? AND status = 'pending'",
+                    userId);
+        }
+    }
+
+    /**
+     * 订单列表：用户已有 orders 个历史订单，每个订单2个场次
+     */
+    @State(Scope.Benchmark)
+    public static class History {
+
+        @Param({"10", "100"})
+        int orders;
+
+        Long userId;
+
+        @Setup(Level.Trial)
+        public void prepare(Application application) {
+            userId = application.createUser("bench_history_" + orders).getId();
+            OrderRepository orderRepository = application.context.getBean(OrderRepository.class);
+            OrderSessionRepository orderSessionRepository = application.context.getBean(OrderSessionRepository.class);
+            LocalDateTime firstDay = LocalDate.now().minusDays(orders).atTime(9, 0);
+            for (int i = 0; i < orders; i++) {
+                LocalDateTime startTime = firstDay.plusDays(i);
+                Order order = orderRepository.save(new Order(null, userId, new BigDecimal("120.00"),
+                        startTime.minusDays(1), startTime, Order.OrderStatus.completed));
+                List<OrderSession> orderSessions = new ArrayList<>();
+                for (int hour = 0; hour < 2; hour++) {
+                    OrderSession orderSession = new OrderSession();
+                    orderSession.setOrderId(order.getId());
+                    orderSession.setCourtName("2号场");
+                    orderSession.setStartTime(startTime.plusHours(hour));
+                    orderSession.setPrice(new BigDecimal("60.00"));
+                    orderSessions.add(orderSession);
+                }
+                orderSessionRepository.saveAll(orderSessions);
+            }
+        }
+    }
+
+    @Benchmark
+    public Order createOrder(Application application, Booking booking) {
+        return application.orderService.createOrder(booking.userId, booking.sessionIds);
+    }
+
+    @Benchmark
+    public List<OrderVerificationResponse> getUserOrders(Application application, History history) {
+        return application.orderService.getUserOrders(history.userId);
+    }
+}
\ No newline at end of file
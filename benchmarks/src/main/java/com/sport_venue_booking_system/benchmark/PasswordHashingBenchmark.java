@@ -0,0 +1,74 @@
+package com.sport_venue_booking_system.benchmark;
+
+import com.sport_venue_booking_system.service.PasswordHashingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PasswordHashingService：注册（encode）和登录（matches）各一次哈希的耗时，包含提交到哈希线程池和等待结果的开销
+ * 线程数、队列长度和BCrypt强度取自 application.yml 中的 password-hash 配置，与应用启动时一致。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordHashingBenchmark {
+
+    private static final String PASSWORD = "benchmark-password";
+
+    private PasswordHashingService passwordHashingService;
+    private String encoded;
+
+    @Setup
+    public void setup() {
+        YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+        yaml.setResources(new ClassPathResource("application.yml"));
+        Properties properties = yaml.getObject();
+
+        passwordHashingService = new PasswordHashingService();
+        ReflectionTestUtils.setField(passwordHashingService, "threads",
+                Integer.parseInt(properties.getProperty("password-hash.threads", "0")));
+        ReflectionTestUtils.setField(passwordHashingService, "queueCapacity",
+                Integer.parseInt(properties.getProperty("password-hash.queue-capacity", "64")));
+        ReflectionTestUtils.setField(passwordHashingService, "timeoutMs",
+                Long.parseLong(properties.getProperty("password-hash.timeout-ms", "10000")));
+        ReflectionTestUtils.setField(passwordHashingService, "configuredStrength",
+                Integer.parseInt(properties.getProperty("password-hash.strength", "10")));
+        ReflectionTestUtils.setField(passwordHashingService, "targetMs",
+                Long.parseLong(properties.getProperty("password-hash.target-ms", "100")));
+        passwordHashingService.init();
+        encoded = passwordHashingService.encode(PASSWORD);
+    }
+
+    @TearDown
+    public void tearDown() {
+        passwordHashingService.shutdown();
+    }
+
+    @Benchmark
+    public String encode() {
+        return passwordHashingService.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordHashingService.matches(PASSWORD, encoded);
+    }
+}
\ No newline at end of file
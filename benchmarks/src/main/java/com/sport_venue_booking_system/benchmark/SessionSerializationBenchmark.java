@@ -0,0 +1,68 @@
+package com.sport_venue_booking_system.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sport_venue_booking_system.dto.ApiResponse;
+import com.sport_venue_booking_system.entity.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按日期查询场次接口的响应序列化：ApiResponse<List<Session>>
+ * courts为场地数，每个场地每天 09:00-21:00 共12个整点场次；ObjectMapper与Spring MVC默认配置相同。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SessionSerializationBenchmark {
+
+    private static final int OPEN_HOUR = 9;
+    private static final int CLOSE_HOUR = 21;
+
+    @Param({"4", "8", "16"})
+    private int courts;
+
+    private ObjectMapper objectMapper;
+    private ApiResponse<List<Session>> response;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        LocalDate day = LocalDate.now().plusDays(1);
+        List<Session> sessions = new ArrayList<>();
+        long id = 1;
+        for (int court = 1; court <= courts; court++) {
+            for (int hour = OPEN_HOUR; hour < CLOSE_HOUR; hour++) {
+                boolean booked = (court + hour) % 3 == 0;
+                sessions.add(new Session(id++, court + "号场", day.atTime(hour, 0),
+                        hour >= 18 ? new BigDecimal("80.00") : new BigDecimal("60.00"),
+                        true, booked, hour == 12 ? "午间场" : null, null));
+            }
+        }
+        response = ApiResponse.success(sessions);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
\ No newline at end of file
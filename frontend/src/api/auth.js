@@ -32,6 +32,13 @@ const authApi = {
   // 登录
   login(data) {
     return authApiClient.post('/auth/login', data)
+  },
+
+  // 退出登录，服务端撤销当前token
+  logout(token) {
+    return authApiClient.post('/auth/logout', null, {
+      headers: { Authorization: `Bearer ${token}` }
+    })
   }
 }
 